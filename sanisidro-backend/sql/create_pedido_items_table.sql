@@ -0,0 +1,22 @@
+-- Crear tabla de items de pedido (reemplaza el JSON guardado en pedidos.detalles)
+CREATE TABLE IF NOT EXISTS pedido_items (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    pedido_id BIGINT NOT NULL,
+    producto_id BIGINT,
+    nombre VARCHAR(255),
+    cantidad INT,
+    precio DOUBLE,
+    INDEX idx_pedido (pedido_id),
+    CONSTRAINT fk_pedido_items_pedido FOREIGN KEY (pedido_id) REFERENCES pedidos (id) ON DELETE CASCADE
+);
+
+-- El carrito ya no está limitado por el tamaño de la columna
+ALTER TABLE pedidos
+MODIFY COLUMN detalles TEXT;
+
+-- Los items de pedidos antiguos se migran automáticamente al iniciar el backend
+-- (PedidoService.migrarDetallesAItems). Para revisar pedidos aún sin items:
+SELECT p.id, p.numero_factura, p.detalles
+FROM pedidos p
+WHERE p.detalles IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM pedido_items i WHERE i.pedido_id = p.id);
@@ -0,0 +1,43 @@
+-- Tablas de resumen diario de ventas (las mantiene VentasDiariasService).
+-- Los reportes y Metabase deben leer de aquí en vez de recorrer pedidos.
+CREATE TABLE IF NOT EXISTS ventas_diarias (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    fecha DATE NOT NULL,
+    pedidos BIGINT NOT NULL DEFAULT 0,
+    total_bruto DOUBLE NOT NULL DEFAULT 0,
+    descuentos DOUBLE NOT NULL DEFAULT 0,
+    total_neto DOUBLE NOT NULL DEFAULT 0,
+    UNIQUE KEY uk_venta_fecha (fecha)
+);
+
+CREATE TABLE IF NOT EXISTS ventas_diarias_promocion (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    fecha DATE NOT NULL,
+    codigo_promo VARCHAR(255) NOT NULL,
+    usos BIGINT NOT NULL DEFAULT 0,
+    descuentos DOUBLE NOT NULL DEFAULT 0,
+    UNIQUE KEY uk_venta_promocion (fecha, codigo_promo)
+);
+
+CREATE TABLE IF NOT EXISTS ventas_diarias_producto (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    fecha DATE NOT NULL,
+    nombre VARCHAR(255) NOT NULL,
+    producto_id BIGINT,
+    cantidad BIGINT NOT NULL DEFAULT 0,
+    importe DOUBLE NOT NULL DEFAULT 0,
+    UNIQUE KEY uk_venta_producto (fecha, nombre)
+);
+
+-- Ventas del último mes desde el resumen
+SELECT fecha, pedidos, total_bruto, descuentos, total_neto
+FROM ventas_diarias
+WHERE fecha >= CURDATE() - INTERVAL 30 DAY
+ORDER BY fecha;
+
+-- Productos más vendidos del último mes
+SELECT nombre, SUM(cantidad) AS cantidad, SUM(importe) AS importe
+FROM ventas_diarias_producto
+WHERE fecha >= CURDATE() - INTERVAL 30 DAY
+GROUP BY nombre
+ORDER BY cantidad DESC;
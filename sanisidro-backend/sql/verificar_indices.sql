@@ -0,0 +1,30 @@
+-- Verifica que las consultas de los repositorios usen los índices creados por
+-- la migración V2 (columna "key" del EXPLAIN; "ALL" en "type" = full scan).
+USE sanisidro_db;
+
+-- Historial de pedidos de un cliente (PedidoRepository.findByEmail)
+EXPLAIN SELECT * FROM pedidos WHERE email = 'cliente@correo.com';
+
+-- Pedidos por estado y cola de cocina (findByEstado)
+EXPLAIN SELECT * FROM pedidos WHERE estado = 'pendiente';
+EXPLAIN SELECT * FROM pedidos WHERE estado IN ('pendiente', 'preparando') ORDER BY fecha, hora;
+
+-- Exportación y resumen de ventas por rango de fechas
+EXPLAIN SELECT * FROM pedidos WHERE fecha BETWEEN CURDATE() - INTERVAL 30 DAY AND CURDATE() ORDER BY id;
+
+-- Reservas de un cliente (findByEmailOrderByFechaDesc)
+EXPLAIN SELECT * FROM reservas WHERE email = 'cliente@correo.com' ORDER BY fecha DESC;
+
+-- Reservas del día y capacidad por turno (findByFecha, sumarPersonasPorTurnoDesde)
+EXPLAIN SELECT * FROM reservas WHERE fecha = CURDATE();
+EXPLAIN SELECT fecha, hora, SUM(numero_personas) FROM reservas
+WHERE fecha >= CURDATE() AND estado <> 'cancelada' GROUP BY fecha, hora;
+
+-- Menú por categoría (ProductoRepository.findByCategoria)
+EXPLAIN SELECT * FROM productos WHERE categoria = 'Entradas';
+
+-- Login (UsuarioRepository.findByEmail, índice único)
+EXPLAIN SELECT * FROM usuarios WHERE email = 'cliente@correo.com';
+
+-- Historial de migraciones aplicadas
+SELECT installed_rank, version, description, success FROM flyway_schema_history ORDER BY installed_rank;
@@ -3,9 +3,11 @@ package com.sanisidro;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
 @SpringBootApplication
+@EnableScheduling
 public class SanIsidroApplication {
     public static void main(String[] args) {
         SpringApplication.run(SanIsidroApplication.class, args);
@@ -0,0 +1,159 @@
+package com.sanisidro.config;
+
+import com.sanisidro.service.TokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Set;
+
+/**
+ * Protege la API con el token de sesión (Authorization: Bearer ...).
+ *
+ * - /api/admin/** y las modificaciones (POST, PUT, DELETE) requieren un
+ *   usuario administrador.
+ * - Un usuario puede modificar sus propios datos (PUT /api/usuarios/{id}).
+ * - Quedan abiertos el login y registro, crear pedidos y reservas (los
+ *   invitados pueden comprar) y los cálculos de carrito.
+ * - De /actuator/** solo health es público; el resto requiere un
+ *   administrador, y /actuator/prometheus acepta además el token de métricas.
+ *
+ * El usuario del token queda en el atributo USUARIO de la petición.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AutenticacionFilter extends OncePerRequestFilter {
+
+    public static final String USUARIO = "com.sanisidro.config.AutenticacionFilter.USUARIO";
+
+    private static final String PREFIJO_BEARER = "Bearer ";
+    private static final String ACTUATOR = "/actuator";
+    private static final String METRICAS = ACTUATOR + "/prometheus";
+
+    // POST abiertos a cualquiera
+    private static final Set<String> POST_PUBLICOS = Set.of(
+            "/api/usuarios/login",
+            "/api/usuarios/logout",
+            "/api/usuarios/registro",
+            "/api/pedidos",
+            "/api/pedidos/cotizar",
+            "/api/promociones/evaluar",
+            "/api/reservas"
+    );
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Value("${seguridad.metricas.token:}")
+    private String tokenMetricas;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String ruta = ruta(request);
+        return !ruta.startsWith("/api/") && !ruta.equals(ACTUATOR) && !ruta.startsWith(ACTUATOR + "/");
+    }
+
+    /**
+     * Ruta tal como la compara Spring MVC: decodificada, sin parámetros
+     * ";matrix" y sin el context path. Con la URI cruda, /api/%61dmin o
+     * /api/admin;x llegarían a AdminController clasificadas como públicas.
+     */
+    private static String ruta(HttpServletRequest request) {
+        return UrlPathHelper.defaultInstance.getLookupPathForRequest(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String token = token(request);
+        TokenService.UsuarioToken usuario = tokenService.verificar(token);
+        if (usuario != null) {
+            request.setAttribute(USUARIO, usuario);
+        }
+
+        String ruta = ruta(request);
+        // Un ';' o '%' que sobrevive a la decodificación es doble codificación
+        if (ruta.indexOf(';') >= 0 || ruta.indexOf('%') >= 0) {
+            rechazar(response, HttpServletResponse.SC_BAD_REQUEST, "Ruta inválida");
+            return;
+        }
+        Acceso acceso = accesoRequerido(request.getMethod(), ruta);
+        if (acceso == Acceso.PUBLICO || (ruta.equals(METRICAS) && esTokenMetricas(token))
+                || (usuario != null && (usuario.esAdmin() || (acceso == Acceso.PROPIO && esPropio(ruta, usuario))))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (usuario == null) {
+            rechazar(response, HttpServletResponse.SC_UNAUTHORIZED, "Sesión requerida");
+        } else {
+            rechazar(response, HttpServletResponse.SC_FORBIDDEN, "No autorizado");
+        }
+    }
+
+    private static Acceso accesoRequerido(String metodo, String ruta) {
+        if (ruta.equals(ACTUATOR) || ruta.startsWith(ACTUATOR + "/")) {
+            boolean lectura = "GET".equals(metodo) || "HEAD".equals(metodo);
+            return ruta.equals(ACTUATOR + "/health") && lectura ? Acceso.PUBLICO : Acceso.ADMIN;
+        }
+        if (ruta.startsWith("/api/admin/") || ruta.equals("/api/admin")) {
+            return Acceso.ADMIN;
+        }
+        switch (metodo) {
+            case "GET", "HEAD", "OPTIONS":
+                return Acceso.PUBLICO;
+            case "POST":
+                return POST_PUBLICOS.contains(ruta) ? Acceso.PUBLICO : Acceso.ADMIN;
+            case "PUT":
+                return ruta.startsWith("/api/usuarios/") ? Acceso.PROPIO : Acceso.ADMIN;
+            default:
+                return Acceso.ADMIN;
+        }
+    }
+
+    /**
+     * true si la ruta es /api/usuarios/{id} con el id del propio usuario.
+     */
+    private static boolean esPropio(String ruta, TokenService.UsuarioToken usuario) {
+        String id = ruta.substring("/api/usuarios/".length());
+        return id.equals(String.valueOf(usuario.id()));
+    }
+
+    private boolean esTokenMetricas(String token) {
+        return StringUtils.isNotEmpty(tokenMetricas) && token != null
+                && MessageDigest.isEqual(tokenMetricas.getBytes(StandardCharsets.UTF_8),
+                        token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String token(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, PREFIJO_BEARER, 0, PREFIJO_BEARER.length())) {
+            return null;
+        }
+        return header.substring(PREFIJO_BEARER.length()).trim();
+    }
+
+    private static void rechazar(HttpServletResponse response, int status, String mensaje) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"error\":\"" + mensaje + "\"}");
+    }
+
+    private enum Acceso {
+        PUBLICO, PROPIO, ADMIN
+    }
+}
@@ -0,0 +1,162 @@
+package com.sanisidro.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide cuántas consultas SQL hace cada petición a /api y cuánto tardan.
+ *
+ * - Header X-SQL-Consultas y X-SQL-Tiempo-Ms en la respuesta.
+ * - Métricas http.server.sql.consultas y http.server.sql.tiempo por uri.
+ * - Log de advertencia si una petición supera el umbral configurado, que
+ *   suele ser un N+1 (una consulta por cada fila de un listado).
+ */
+@Component
+public class ConsultasSqlFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ConsultasSqlFilter.class);
+
+    public static final String HEADER_CONSULTAS = "X-SQL-Consultas";
+    public static final String HEADER_TIEMPO = "X-SQL-Tiempo-Ms";
+
+    private static final Set<String> METODOS = Set.of("GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS");
+
+    @Value("${sql.consultas.alerta-por-peticion:20}")
+    private int umbralAlerta;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Los builders de Micrometer buscan el meter en el registro en cada
+    // register(); por petición basta con una búsqueda en este mapa
+    private final Map<String, Medidores> medidores = new ConcurrentHashMap<>();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ConsultasSqlListener.Medicion medicion = ConsultasSqlListener.iniciar();
+        RespuestaConConteo respuesta = new RespuestaConConteo(response, medicion);
+        try {
+            filterChain.doFilter(request, respuesta);
+        } finally {
+            ConsultasSqlListener.terminar();
+            // Respuestas sin cuerpo (204, errores): el header aún se puede agregar
+            respuesta.agregarHeaders();
+            registrar(request, medicion);
+        }
+    }
+
+    private void registrar(HttpServletRequest request, ConsultasSqlListener.Medicion medicion) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = patron != null ? patron.toString() : "UNKNOWN";
+        // El método lo elige el cliente: uno desconocido no debe crear meters nuevos
+        String metodo = METODOS.contains(request.getMethod()) ? request.getMethod() : "OTHER";
+        Medidores medidor = medidores.computeIfAbsent(metodo + " " + uri, clave -> new Medidores(
+                DistributionSummary.builder("http.server.sql.consultas")
+                        .description("Consultas SQL por petición")
+                        .tag("method", metodo)
+                        .tag("uri", uri)
+                        .register(meterRegistry),
+                Timer.builder("http.server.sql.tiempo")
+                        .description("Tiempo en consultas SQL por petición")
+                        .tag("method", metodo)
+                        .tag("uri", uri)
+                        .register(meterRegistry)));
+        medidor.consultas().record(medicion.consultas);
+        medidor.tiempo().record(medicion.nanos, TimeUnit.NANOSECONDS);
+        if (medicion.consultas > umbralAlerta) {
+            log.warn("sql.consultas_excesivas method={} uri={} consultas={} tiempoMs={}",
+                    request.getMethod(), uri, medicion.consultas, TimeUnit.NANOSECONDS.toMillis(medicion.nanos));
+        }
+    }
+
+    private record Medidores(DistributionSummary consultas, Timer tiempo) {
+    }
+
+    /**
+     * Agrega los headers justo antes de empezar a escribir el cuerpo, que es
+     * cuando ya no se pueden modificar. Las consultas hechas mientras se
+     * escribe (exportaciones por streaming) solo quedan en las métricas.
+     */
+    private static class RespuestaConConteo extends HttpServletResponseWrapper {
+
+        private final ConsultasSqlListener.Medicion medicion;
+        private boolean headersAgregados;
+
+        RespuestaConConteo(HttpServletResponse response, ConsultasSqlListener.Medicion medicion) {
+            super(response);
+            this.medicion = medicion;
+        }
+
+        void agregarHeaders() {
+            if (headersAgregados || isCommitted()) {
+                return;
+            }
+            headersAgregados = true;
+            setHeader(HEADER_CONSULTAS, String.valueOf(medicion.consultas));
+            setHeader(HEADER_TIEMPO, String.valueOf(TimeUnit.NANOSECONDS.toMillis(medicion.nanos)));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            agregarHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            agregarHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            agregarHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            agregarHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            agregarHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            agregarHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.sanisidro.config;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Cuenta las sentencias SQL que ejecuta Hibernate y el tiempo que tardan,
+ * acumulándolas en la medición de la petición HTTP en curso (ver
+ * ConsultasSqlFilter). Hibernate crea una instancia por sesión, registrada con
+ * hibernate.session.events.auto en application.properties.
+ */
+public class ConsultasSqlListener implements SessionEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<Medicion> ACTUAL = new ThreadLocal<>();
+
+    private long inicio;
+
+    static Medicion iniciar() {
+        Medicion medicion = new Medicion();
+        ACTUAL.set(medicion);
+        return medicion;
+    }
+
+    static void terminar() {
+        ACTUAL.remove();
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        inicio = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        registrar();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        inicio = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        registrar();
+    }
+
+    private void registrar() {
+        Medicion medicion = ACTUAL.get();
+        // Fuera de una petición (tareas programadas, migraciones) no se mide
+        if (medicion != null) {
+            medicion.consultas++;
+            medicion.nanos += System.nanoTime() - inicio;
+        }
+    }
+
+    static class Medicion {
+        int consultas;
+        long nanos;
+    }
+}
@@ -0,0 +1,100 @@
+package com.sanisidro.config;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceTransformer;
+import org.springframework.web.servlet.resource.ResourceTransformerChain;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Mantiene en memoria el contenido de los archivos chicos de /uploads (iconos,
+ * miniaturas) para no leerlos del disco en cada petición. Los archivos
+ * grandes se siguen leyendo del disco por streaming.
+ */
+public class RecursosEnMemoriaTransformer implements ResourceTransformer {
+
+    private final long maxBytesArchivo;
+    private final Cache<String, RecursoEnMemoria> cache;
+
+    public RecursosEnMemoriaTransformer(long maxBytesArchivo, long maxBytesTotal) {
+        this.maxBytesArchivo = maxBytesArchivo;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytesTotal)
+                .weigher((String clave, RecursoEnMemoria recurso) -> recurso.getByteArray().length)
+                .recordStats()
+                .build();
+    }
+
+    public Cache<String, RecursoEnMemoria> getCache() {
+        return cache;
+    }
+
+    @Override
+    public Resource transform(HttpServletRequest request, Resource resource,
+                              ResourceTransformerChain transformerChain) throws IOException {
+        Resource transformado = transformerChain.transform(request, resource);
+        if (!transformado.isFile() || transformado.contentLength() > maxBytesArchivo) {
+            return transformado;
+        }
+        // La fecha de modificación en la clave invalida la entrada si el archivo cambia
+        long lastModified = transformado.lastModified();
+        String clave = transformado.getFile().getAbsolutePath() + "@" + lastModified;
+        try {
+            return cache.get(clave, () -> new RecursoEnMemoria(
+                    transformado.getContentAsByteArray(), transformado.getFilename(), lastModified,
+                    transformado instanceof HttpResource http ? http.getResponseHeaders() : HttpHeaders.EMPTY));
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Copia en memoria de un archivo. Conserva el nombre (para el Content-Type),
+     * la fecha de modificación y los headers del resolver de versiones (ETag).
+     */
+    static class RecursoEnMemoria extends ByteArrayResource implements HttpResource {
+
+        private final String filename;
+        private final long lastModified;
+        private final HttpHeaders headers;
+
+        RecursoEnMemoria(byte[] contenido, String filename, long lastModified, HttpHeaders headers) {
+            super(contenido, filename);
+            this.filename = filename;
+            this.lastModified = lastModified;
+            this.headers = headers;
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public long lastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            return headers;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+}
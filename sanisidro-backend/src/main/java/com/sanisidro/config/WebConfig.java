@@ -1,28 +1,75 @@
 package com.sanisidro.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.http.CacheControl;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import org.springframework.web.filter.CorsFilter;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
-    @Override
-    public void addCorsMappings(CorsRegistry registry) {
-        registry.addMapping("/**")
-                .allowedOrigins(
-                    "http://localhost:3000",
-                    "https://exquisite-kringle-90e175.netlify.app"
-                )
-                .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
-                .allowedHeaders("*")
-                .allowCredentials(true);
+    @Value("${recursos.cache.max-kb-archivo:256}")
+    private long maxKbArchivoEnMemoria;
+
+    @Value("${recursos.cache.max-mb:64}")
+    private long maxMbEnMemoria;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * CORS como filtro del servlet (antes que AutenticacionFilter) para que
+     * las respuestas 401/403 también lleven los headers y el navegador las
+     * entregue al frontend.
+     */
+    @Bean
+    public FilterRegistrationBean<CorsFilter> corsFilter() {
+        CorsConfiguration config = new CorsConfiguration();
+        config.setAllowedOrigins(List.of(
+                "http://localhost:3000",
+                "https://exquisite-kringle-90e175.netlify.app"
+        ));
+        config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        config.addAllowedHeader("*");
+        config.setExposedHeaders(List.of(ConsultasSqlFilter.HEADER_CONSULTAS, ConsultasSqlFilter.HEADER_TIEMPO));
+        config.setAllowCredentials(true);
+
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", config);
+        FilterRegistrationBean<CorsFilter> registro = new FilterRegistrationBean<>(new CorsFilter(source));
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registro;
     }
 
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // Los archivos subidos tienen nombre único (UUID) y nunca se sobrescriben,
+        // así que el navegador puede guardarlos sin revalidar
+        // El resource chain acepta URLs versionadas con el hash del contenido
+        // (uuid-<md5>.jpg) además del nombre original. Range lo resuelve
+        // ResourceHttpRequestHandler; los archivos chicos se sirven desde memoria
+        RecursosEnMemoriaTransformer enMemoria = new RecursosEnMemoriaTransformer(
+                maxKbArchivoEnMemoria * 1024, maxMbEnMemoria * 1024 * 1024);
+        GuavaCacheMetrics.monitor(meterRegistry, enMemoria.getCache(), "recursos.uploads");
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:uploads/");
+                .addResourceLocations("file:uploads/")
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"))
+                .addTransformer(enMemoria);
     }
 }
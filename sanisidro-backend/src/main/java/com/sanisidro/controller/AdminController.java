@@ -0,0 +1,108 @@
+package com.sanisidro.controller;
+
+import com.sanisidro.dto.EstadisticasDTO;
+import com.sanisidro.dto.ReporteVentasDTO;
+import com.sanisidro.service.EstadisticasService;
+import com.sanisidro.service.ExportacionService;
+import com.sanisidro.service.ProductoService;
+import com.sanisidro.service.VentasDiariasService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(originPatterns = "*")
+public class AdminController {
+
+    @Autowired
+    private EstadisticasService estadisticasService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ExportacionService exportacionService;
+
+    @Autowired
+    private VentasDiariasService ventasDiariasService;
+
+    @GetMapping("/stats")
+    public EstadisticasDTO obtenerEstadisticas() {
+        return estadisticasService.obtener();
+    }
+
+    @GetMapping("/cache/productos")
+    public Map<String, Object> obtenerEstadisticasCacheProductos() {
+        return productoService.obtenerEstadisticasCache();
+    }
+
+    @GetMapping("/ventas")
+    public ResponseEntity<ReporteVentasDTO> obtenerReporteVentas(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(30);
+        if (inicio.isAfter(fin)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(ventasDiariasService.obtenerReporte(inicio, fin));
+    }
+
+    @PostMapping("/ventas/reconstruir")
+    public ResponseEntity<Void> reconstruirVentas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        if (desde.isAfter(hasta)) {
+            return ResponseEntity.badRequest().build();
+        }
+        ventasDiariasService.reconstruir(desde, hasta);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/export/pedidos.xlsx")
+    public void exportarPedidos(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+                                HttpServletResponse response) throws IOException {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(30);
+        if (!prepararDescarga(response, "pedidos", inicio, fin)) {
+            return;
+        }
+        exportacionService.exportarPedidos(inicio, fin, response.getOutputStream());
+    }
+
+    @GetMapping("/export/reservas.xlsx")
+    public void exportarReservas(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+                                 HttpServletResponse response) throws IOException {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(30);
+        if (!prepararDescarga(response, "reservas", inicio, fin)) {
+            return;
+        }
+        exportacionService.exportarReservas(inicio, fin, response.getOutputStream());
+    }
+
+    private boolean prepararDescarga(HttpServletResponse response, String nombre,
+                                     LocalDate desde, LocalDate hasta) throws IOException {
+        if (desde.isAfter(hasta)) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "La fecha 'desde' es posterior a 'hasta'");
+            return false;
+        }
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(nombre + "_" + desde + "_" + hasta + ".xlsx")
+                .build()
+                .toString());
+        return true;
+    }
+}
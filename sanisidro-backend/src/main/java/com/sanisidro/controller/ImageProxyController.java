@@ -1,9 +1,16 @@
 package com.sanisidro.controller;
 
+import com.sanisidro.service.ImagenProxyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Base64;
 
 @RestController
@@ -11,22 +18,46 @@ import java.util.Base64;
 @CrossOrigin(originPatterns = "*")
 public class ImageProxyController {
 
+    @Autowired
+    private ImagenProxyService imagenProxyService;
+
     @GetMapping
-    public ResponseEntity<byte[]> getImage(@RequestParam String url) {
+    public ResponseEntity<Resource> getImage(@RequestParam String url,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             // Decodificar la URL si viene en Base64
-            String imageUrl = new String(Base64.getUrlDecoder().decode(url));
-            
-            RestTemplate restTemplate = new RestTemplate();
-            ResponseEntity<byte[]> response = restTemplate.getForEntity(imageUrl, byte[].class);
-            
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.IMAGE_JPEG);
-            headers.setCacheControl(CacheControl.maxAge(java.time.Duration.ofDays(7)));
-            
-            return new ResponseEntity<>(response.getBody(), headers, HttpStatus.OK);
-        } catch (Exception e) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            String imageUrl = new String(Base64.getUrlDecoder().decode(url), StandardCharsets.UTF_8);
+
+            ImagenProxyService.ImagenCacheada imagen = imagenProxyService.obtener(imageUrl);
+            if (imagen == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            String etag = imagen.entrada().etag();
+            CacheControl cacheControl = CacheControl.maxAge(Duration.ofDays(7)).cachePublic();
+            if (etag.equals(ifNoneMatch)) {
+                imagen.contenido().close();
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+            }
+
+            // El archivo se abrió mientras la entrada estaba en la cache: aunque
+            // se desaloje durante el envío, el stream sigue siendo válido
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(imagen.entrada().contentType()))
+                    .contentLength(imagen.entrada().tamano())
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .body(new InputStreamResource(imagen.contenido()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (HttpTimeoutException e) {
+            // Incluye HttpConnectTimeoutException
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
         }
     }
 }
@@ -1,16 +1,26 @@
 package com.sanisidro.controller;
 
+import com.sanisidro.service.ImagenVariantesService;
+import com.sanisidro.service.TipoImagen;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.UUID;
 
@@ -21,27 +31,63 @@ public class ImageUploadController {
 
     private static final String UPLOAD_DIR = "uploads/promociones/";
 
+    @Autowired
+    private ImagenVariantesService imagenVariantesService;
+
+    @Autowired
+    private ResourceUrlProvider resourceUrlProvider;
+
     @PostMapping("/image")
     public ResponseEntity<Map<String, String>> uploadImage(@RequestParam("file") MultipartFile file) {
+        Path temporal = null;
         try {
             // Crear directorio si no existe
-            File uploadDir = new File(UPLOAD_DIR);
-            if (!uploadDir.exists()) {
-                uploadDir.mkdirs();
+            Path uploadDir = Paths.get(UPLOAD_DIR);
+            Files.createDirectories(uploadDir);
+
+            // Se copia por canales al disco, sin cargar el archivo completo en memoria
+            temporal = Files.createTempFile(uploadDir, "subida", ".tmp");
+            try (InputStream entrada = file.getInputStream();
+                 ReadableByteChannel origen = Channels.newChannel(entrada);
+                 FileChannel destino = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                long posicion = 0;
+                long transferidos;
+                while ((transferidos = destino.transferFrom(origen, posicion, 1024 * 1024)) > 0) {
+                    posicion += transferidos;
+                }
+            }
+
+            // La extensión sale del contenido real, no del nombre que envía el cliente
+            String contentType = TipoImagen.detectar(temporal);
+            if (contentType == null) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "El archivo no es una imagen válida");
+                return ResponseEntity.badRequest().body(error);
             }
 
             // Generar nombre único para el archivo
-            String originalFilename = file.getOriginalFilename();
-            String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            String filename = UUID.randomUUID().toString() + extension;
+            String filename = UUID.randomUUID().toString() + TipoImagen.extension(contentType);
+            Path filepath = uploadDir.resolve(filename);
+            Files.move(temporal, filepath, StandardCopyOption.ATOMIC_MOVE);
 
-            // Guardar archivo
-            Path filepath = Paths.get(UPLOAD_DIR, filename);
-            Files.write(filepath, file.getBytes());
+            // Las variantes reducidas se generan en segundo plano
+            boolean conVariantes = ImagenVariantesService.admiteVariantes(contentType);
+            if (conVariantes) {
+                imagenVariantesService.generarAsync(filepath);
+            }
 
             // Retornar URL de la imagen
             Map<String, String> response = new HashMap<>();
             response.put("url", "/uploads/promociones/" + filename);
+            // URL con el hash del contenido, cacheable indefinidamente por el navegador
+            String urlVersionada = resourceUrlProvider.getForLookupPath("/uploads/promociones/" + filename);
+            if (urlVersionada != null) {
+                response.put("urlVersionada", urlVersionada);
+            }
+            if (conVariantes) {
+                // Todavía no existen: se consultan aquí cuando estén listas
+                response.put("variantes", "/api/upload/image/" + filename + "/variantes");
+            }
             response.put("message", "Imagen subida exitosamente");
 
             return ResponseEntity.ok(response);
@@ -49,6 +95,31 @@ public class ImageUploadController {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Error al subir la imagen: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        } finally {
+            if (temporal != null) {
+                try {
+                    Files.deleteIfExists(temporal);
+                } catch (IOException e) {
+                    // El temporal queda en el directorio; no afecta a la respuesta
+                }
+            }
+        }
+    }
+
+    /**
+     * URLs de las variantes que ya se generaron; vacío mientras se procesan o
+     * si la imagen no admite variantes.
+     */
+    @GetMapping("/image/{nombre}/variantes")
+    public ResponseEntity<Map<String, String>> variantes(@PathVariable String nombre) {
+        Path uploadDir = Paths.get(UPLOAD_DIR).normalize();
+        Path original = uploadDir.resolve(nombre).normalize();
+        if (!uploadDir.equals(original.getParent()) || !Files.isRegularFile(original)) {
+            return ResponseEntity.notFound().build();
         }
+        Map<String, String> response = new LinkedHashMap<>();
+        imagenVariantesService.variantesExistentes(original)
+                .forEach((variante, archivo) -> response.put(variante, "/uploads/promociones/" + archivo));
+        return ResponseEntity.ok(response);
     }
 }
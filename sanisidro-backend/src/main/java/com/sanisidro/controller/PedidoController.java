@@ -1,10 +1,18 @@
 package com.sanisidro.controller;
 
+import com.sanisidro.dto.CarritoDTO;
+import com.sanisidro.dto.PaginaDTO;
+import com.sanisidro.dto.PedidoCocinaDTO;
 import com.sanisidro.model.Pedido;
+import com.sanisidro.service.PedidoEventosService;
 import com.sanisidro.service.PedidoService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.util.List;
 import java.util.Map;
 
@@ -12,15 +20,38 @@ import java.util.Map;
 @RequestMapping("/api/pedidos")
 @CrossOrigin(originPatterns = "*")
 public class PedidoController {
+
+    private static final Logger log = LoggerFactory.getLogger(PedidoController.class);
     
     @Autowired
     private PedidoService pedidoService;
     
+    @Autowired
+    private PedidoEventosService pedidoEventosService;
+    
     @GetMapping
     public List<Pedido> obtenerTodos() {
         return pedidoService.obtenerTodos();
     }
     
+    @GetMapping("/pagina")
+    public PaginaDTO<Pedido> obtenerPagina(@RequestParam(required = false) Long after,
+                                           @RequestParam(required = false) Integer limit) {
+        return pedidoService.obtenerPagina(after, limit);
+    }
+    
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEventoId) {
+        return pedidoEventosService.suscribir(ultimoEventoId);
+    }
+    
+    // Cola de cocina: /api/pedidos/cocina?estados=pendiente,preparando
+    @GetMapping("/cocina")
+    public List<PedidoCocinaDTO> obtenerColaCocina(
+            @RequestParam(defaultValue = "pendiente,preparando") List<String> estados) {
+        return pedidoService.obtenerColaCocina(estados);
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Pedido> obtenerPorId(@PathVariable Long id) {
         return pedidoService.obtenerPorId(id)
@@ -38,33 +69,36 @@ public class PedidoController {
         return pedidoService.obtenerPorEstado(estado);
     }
     
+    @PostMapping("/cotizar")
+    public ResponseEntity<?> cotizar(@RequestBody CarritoDTO carrito) {
+        try {
+            return ResponseEntity.ok(pedidoService.cotizar(carrito.getItems(), carrito.getCodigoPromo()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
     @PostMapping
-    public Pedido crear(@RequestBody Pedido pedido) {
-        System.out.println("=== CREANDO PEDIDO ===");
-        System.out.println("Cliente: " + pedido.getCliente());
-        System.out.println("Subtotal: " + pedido.getSubtotal());
-        System.out.println("Descuento: " + pedido.getDescuento());
-        System.out.println("Código Promo: " + pedido.getCodigoPromo());
-        System.out.println("Total: " + pedido.getTotal());
-        System.out.println("=====================");
-        return pedidoService.crear(pedido);
+    public ResponseEntity<?> crear(@RequestBody Pedido pedido) {
+        try {
+            Pedido creado = pedidoService.crear(pedido);
+            log.info("pedido.creado id={} cliente={} items={} subtotal={} descuento={} codigoPromo={} total={}",
+                    creado.getId(), creado.getCliente(), creado.getItems().size(), creado.getSubtotal(),
+                    creado.getDescuento(), creado.getCodigoPromo(), creado.getTotal());
+            return ResponseEntity.ok(creado);
+        } catch (IllegalArgumentException e) {
+            log.warn("pedido.rechazado cliente={} motivo={}", pedido.getCliente(), e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
     
     @PutMapping("/{id}/estado")
     public ResponseEntity<Pedido> actualizarEstado(@PathVariable Long id, @RequestBody Map<String, String> body) {
         String estado = body.get("estado");
-        System.out.println("=== ACTUALIZANDO ESTADO DE PEDIDO ===");
-        System.out.println("ID del pedido: " + id);
-        System.out.println("Nuevo estado: " + estado);
-        
         Pedido pedidoActualizado = pedidoService.actualizarEstado(id, estado);
         if (pedidoActualizado != null) {
-            System.out.println("Estado actualizado exitosamente a: " + pedidoActualizado.getEstado());
-            System.out.println("=====================================");
             return ResponseEntity.ok(pedidoActualizado);
         }
-        System.out.println("ERROR: Pedido no encontrado");
-        System.out.println("=====================================");
         return ResponseEntity.notFound().build();
     }
     
@@ -1,8 +1,14 @@
 package com.sanisidro.controller;
 
+import com.sanisidro.dto.PaginaDTO;
 import com.sanisidro.model.Producto;
+import com.sanisidro.service.MenuSerializadoService;
 import com.sanisidro.service.ProductoService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
@@ -15,9 +21,20 @@ public class ProductoController {
     @Autowired
     private ProductoService productoService;
     
+    @Autowired
+    private MenuSerializadoService menuSerializadoService;
+    
     @GetMapping
-    public List<Producto> obtenerTodos() {
-        return productoService.obtenerTodos();
+    public ResponseEntity<byte[]> obtenerTodos(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return responderMenu(menuSerializadoService.obtenerTodos(), ifNoneMatch, acceptEncoding);
+    }
+    
+    @GetMapping("/pagina")
+    public PaginaDTO<Producto> obtenerPagina(@RequestParam(required = false) Long after,
+                                             @RequestParam(required = false) Integer limit) {
+        return productoService.obtenerPagina(after, limit);
     }
     
     @GetMapping("/{id}")
@@ -27,8 +44,54 @@ public class ProductoController {
     }
     
     @GetMapping("/categoria/{categoria}")
-    public List<Producto> obtenerPorCategoria(@PathVariable String categoria) {
-        return productoService.obtenerPorCategoria(categoria);
+    public ResponseEntity<byte[]> obtenerPorCategoria(
+            @PathVariable String categoria,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return responderMenu(menuSerializadoService.obtenerPorCategoria(categoria), ifNoneMatch, acceptEncoding);
+    }
+    
+    /**
+     * Responde con el JSON ya serializado, comprimido si el cliente acepta
+     * gzip, o con 304 si el ETag que envía el cliente sigue vigente.
+     */
+    private ResponseEntity<byte[]> responderMenu(MenuSerializadoService.Representacion menu,
+                                                 String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = "\"" + menu.etag() + (gzip ? "-gz" : "") + "\"";
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setCacheControl(CacheControl.noCache());
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        
+        if (ifNoneMatch != null && coincideEtag(ifNoneMatch, menu.etag())) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+        
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new ResponseEntity<>(menu.gzip(), headers, HttpStatus.OK);
+        }
+        return new ResponseEntity<>(menu.json(), headers, HttpStatus.OK);
+    }
+    
+    private boolean coincideEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch.trim().equals("*")) {
+            return true;
+        }
+        for (String valor : ifNoneMatch.split(",")) {
+            String limpio = valor.trim();
+            if (limpio.startsWith("W/")) {
+                limpio = limpio.substring(2);
+            }
+            limpio = limpio.replace("\"", "");
+            if (limpio.equals(etag) || limpio.equals(etag + "-gz")) {
+                return true;
+            }
+        }
+        return false;
     }
     
     @PostMapping
@@ -1,5 +1,6 @@
 package com.sanisidro.controller;
 
+import com.sanisidro.dto.CarritoDTO;
 import com.sanisidro.model.Promocion;
 import com.sanisidro.service.PromocionService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,6 +33,15 @@ public class PromocionController {
         return promocion != null ? ResponseEntity.ok(promocion) : ResponseEntity.notFound().build();
     }
     
+    @PostMapping("/evaluar")
+    public ResponseEntity<?> evaluar(@RequestBody CarritoDTO carrito) {
+        try {
+            return ResponseEntity.ok(promocionService.evaluar(carrito));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
     @PostMapping
     public Promocion crear(@RequestBody Promocion promocion) {
         return promocionService.crear(promocion);
@@ -3,8 +3,10 @@ package com.sanisidro.controller;
 import com.sanisidro.dto.ReniecResponse;
 import com.sanisidro.service.ReniecService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.RestClientException;
 
 @RestController
 @RequestMapping("/api/reniec")
@@ -18,9 +20,19 @@ public class ReniecController {
   public ResponseEntity<ReniecResponse> consultarDni(@PathVariable String dni) {
     try {
       ReniecResponse datos = reniecService.consultarPorDni(dni);
+      if (datos == null) {
+        return ResponseEntity.notFound().build();
+      }
       return ResponseEntity.ok(datos);
-    } catch (Exception e) {
-      return ResponseEntity.badRequest().build(); // O manejar error 404/500
+    } catch (IllegalArgumentException e) {
+      // DNI con formato inválido
+      return ResponseEntity.badRequest().build();
+    } catch (IllegalStateException e) {
+      // Circuito abierto o demasiadas consultas en curso
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    } catch (RestClientException e) {
+      // La API de RENIEC falló, no respondió a tiempo o devolvió algo ilegible
+      return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
     }
   }
 }
\ No newline at end of file
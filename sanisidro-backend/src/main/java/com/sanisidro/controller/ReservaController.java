@@ -1,8 +1,11 @@
 package com.sanisidro.controller;
 
+import com.sanisidro.dto.PaginaDTO;
+import com.sanisidro.dto.TurnoDisponibilidadDTO;
 import com.sanisidro.model.Reserva;
 import com.sanisidro.service.ReservaService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.time.LocalDate;
@@ -21,6 +24,17 @@ public class ReservaController {
         return reservaService.obtenerTodas();
     }
     
+    @GetMapping("/pagina")
+    public PaginaDTO<Reserva> obtenerPagina(@RequestParam(required = false) Long after,
+                                            @RequestParam(required = false) Integer limit) {
+        return reservaService.obtenerPagina(after, limit);
+    }
+    
+    @GetMapping("/disponibilidad")
+    public List<TurnoDisponibilidadDTO> consultarDisponibilidad(@RequestParam String fecha) {
+        return reservaService.consultarDisponibilidad(LocalDate.parse(fecha));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Reserva> obtenerPorId(@PathVariable Long id) {
         Reserva reserva = reservaService.obtenerPorId(id);
@@ -43,14 +57,26 @@ public class ReservaController {
     }
     
     @PostMapping
-    public Reserva crear(@RequestBody Reserva reserva) {
-        return reservaService.crear(reserva);
+    public ResponseEntity<?> crear(@RequestBody Reserva reserva) {
+        try {
+            return ResponseEntity.ok(reservaService.crear(reserva));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<Reserva> actualizar(@PathVariable Long id, @RequestBody Reserva reserva) {
-        Reserva actualizada = reservaService.actualizar(id, reserva);
-        return actualizada != null ? ResponseEntity.ok(actualizada) : ResponseEntity.notFound().build();
+    public ResponseEntity<?> actualizar(@PathVariable Long id, @RequestBody Reserva reserva) {
+        try {
+            Reserva actualizada = reservaService.actualizar(id, reserva);
+            return actualizada != null ? ResponseEntity.ok(actualizada) : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
     }
     
     @DeleteMapping("/{id}")
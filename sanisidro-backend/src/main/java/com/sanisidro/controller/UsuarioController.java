@@ -1,6 +1,10 @@
 package com.sanisidro.controller;
 
+import com.sanisidro.config.AutenticacionFilter;
+import com.sanisidro.dto.PaginaDTO;
+import com.sanisidro.dto.SesionDTO;
 import com.sanisidro.model.Usuario;
+import com.sanisidro.service.TokenService;
 import com.sanisidro.service.UsuarioService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -16,11 +20,20 @@ public class UsuarioController {
     @Autowired
     private UsuarioService usuarioService;
     
+    @Autowired
+    private TokenService tokenService;
+    
     @GetMapping
     public List<Usuario> obtenerTodos() {
         return usuarioService.obtenerTodos();
     }
     
+    @GetMapping("/pagina")
+    public PaginaDTO<Usuario> obtenerPagina(@RequestParam(required = false) Long after,
+                                            @RequestParam(required = false) Integer limit) {
+        return usuarioService.obtenerPagina(after, limit);
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Usuario> obtenerPorId(@PathVariable Long id) {
         return usuarioService.obtenerPorId(id)
@@ -29,29 +42,68 @@ public class UsuarioController {
     }
     
     @PostMapping("/registro")
-    public ResponseEntity<Usuario> registrar(@RequestBody Usuario usuario) {
-        Usuario nuevoUsuario = usuarioService.registrar(usuario);
-        return ResponseEntity.ok(nuevoUsuario);
+    public ResponseEntity<?> registrar(@RequestBody Usuario usuario,
+                                       @RequestAttribute(name = AutenticacionFilter.USUARIO, required = false)
+                                       TokenService.UsuarioToken sesion) {
+        // Solo un administrador puede crear otros administradores o sobrescribir un usuario
+        if (sesion == null || !sesion.esAdmin()) {
+            usuario.setId(null);
+            usuario.setEsAdmin(false);
+        }
+        try {
+            Usuario nuevoUsuario = usuarioService.registrar(usuario);
+            return ResponseEntity.ok(nuevoUsuario);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(e.getMessage());
+        }
     }
     
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody Map<String, String> credentials) {
         String email = credentials.get("email");
         String password = credentials.get("password");
-        Usuario usuario = usuarioService.login(email, password);
-        if (usuario != null) {
-            return ResponseEntity.ok(usuario);
+        if (usuarioService.loginBloqueado(email)) {
+            return ResponseEntity.status(429).body("Demasiados intentos fallidos, intente más tarde");
+        }
+        try {
+            Usuario usuario = usuarioService.login(email, password);
+            if (usuario != null) {
+                return ResponseEntity.ok(SesionDTO.de(usuario, tokenService.emitir(usuario)));
+            }
+            return ResponseEntity.status(401).body("Credenciales inválidas");
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(e.getMessage());
+        }
+    }
+    
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestAttribute(name = AutenticacionFilter.USUARIO, required = false)
+                                       TokenService.UsuarioToken sesion) {
+        if (sesion != null) {
+            tokenService.revocar(sesion);
         }
-        return ResponseEntity.status(401).body("Credenciales inválidas");
+        return ResponseEntity.noContent().build();
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<Usuario> actualizar(@PathVariable Long id, @RequestBody Usuario usuario) {
-        Usuario usuarioActualizado = usuarioService.actualizar(id, usuario);
-        if (usuarioActualizado != null) {
-            return ResponseEntity.ok(usuarioActualizado);
+    public ResponseEntity<?> actualizar(@PathVariable Long id, @RequestBody Usuario usuario,
+                                        @RequestAttribute(name = AutenticacionFilter.USUARIO, required = false)
+                                        TokenService.UsuarioToken sesion) {
+        try {
+            // El filtro ya garantiza que es un administrador o el propio usuario
+            boolean comoAdmin = sesion != null && sesion.esAdmin();
+            Usuario usuarioActualizado = usuarioService.actualizar(id, usuario, comoAdmin);
+            if (usuarioActualizado != null) {
+                return ResponseEntity.ok(usuarioActualizado);
+            }
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(e.getMessage());
         }
-        return ResponseEntity.notFound().build();
     }
     
     @DeleteMapping("/{id}")
@@ -0,0 +1,15 @@
+package com.sanisidro.dto;
+
+import com.sanisidro.model.ItemPedido;
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Carrito enviado por el frontend para validar un código promocional.
+ */
+@Data
+public class CarritoDTO {
+    private String codigoPromo;
+    private List<ItemPedido> items = new ArrayList<>();
+}
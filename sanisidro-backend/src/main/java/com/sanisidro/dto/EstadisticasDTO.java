@@ -0,0 +1,20 @@
+package com.sanisidro.dto;
+
+import lombok.Data;
+import java.util.Map;
+
+/**
+ * DTO con los contadores del dashboard de administración.
+ * Los valores ya vienen calculados por EstadisticasService.
+ */
+@Data
+public class EstadisticasDTO {
+    private long totalPedidos;
+    private Map<String, Long> pedidosPorEstado;
+    private double ingresosHoy;
+    private long reservasHoy;
+    private long reservasTotales;
+    private long productos;
+    private long productosActivos;
+    private long usuariosRegistrados;
+}
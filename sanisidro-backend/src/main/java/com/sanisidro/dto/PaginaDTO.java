@@ -0,0 +1,47 @@
+package com.sanisidro.dto;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de resultados paginados por cursor (keyset).
+ *
+ * Los listados se ordenan por id descendente; para pedir la siguiente página
+ * se envía nextCursor como parámetro "after". nextCursor es null cuando ya no
+ * hay más resultados.
+ */
+@Data
+public class PaginaDTO<T> {
+
+    public static final int LIMITE_POR_DEFECTO = 20;
+    public static final int LIMITE_MAXIMO = 100;
+
+    private List<T> items;
+    private Long nextCursor;
+
+    public PaginaDTO(List<T> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public static int normalizarLimite(Integer limite) {
+        if (limite == null || limite <= 0) {
+            return LIMITE_POR_DEFECTO;
+        }
+        return Math.min(limite, LIMITE_MAXIMO);
+    }
+
+    /**
+     * Arma la página a partir de una consulta que pidió limite + 1 filas:
+     * la fila extra solo indica que existe una página siguiente.
+     */
+    public static <T> PaginaDTO<T> de(List<T> filas, int limite, Function<T, Long> id) {
+        if (filas.size() > limite) {
+            List<T> items = new ArrayList<>(filas.subList(0, limite));
+            return new PaginaDTO<>(items, id.apply(items.get(limite - 1)));
+        }
+        return new PaginaDTO<>(filas, null);
+    }
+}
@@ -0,0 +1,14 @@
+package com.sanisidro.dto;
+
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Vista liviana de un pedido para la pantalla de cocina: solo lo que se
+ * muestra en la cola, sin detalles, montos ni fechas de auditoría.
+ */
+public record PedidoCocinaDTO(Long id, String cliente, LocalTime hora, String estado, List<Item> items) {
+
+    public record Item(String nombre, Integer cantidad) {
+    }
+}
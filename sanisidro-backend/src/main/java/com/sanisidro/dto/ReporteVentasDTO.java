@@ -0,0 +1,24 @@
+package com.sanisidro.dto;
+
+import com.sanisidro.model.VentaDiaria;
+import com.sanisidro.model.VentaDiariaProducto;
+import com.sanisidro.model.VentaDiariaPromocion;
+import lombok.Data;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Reporte de ventas de un rango de fechas, leído de las tablas de resumen.
+ */
+@Data
+public class ReporteVentasDTO {
+    private LocalDate desde;
+    private LocalDate hasta;
+    private long pedidos;
+    private double totalBruto;
+    private double descuentos;
+    private double totalNeto;
+    private List<VentaDiaria> dias;
+    private List<VentaDiariaPromocion> promociones;
+    private List<VentaDiariaProducto> productos;
+}
@@ -0,0 +1,29 @@
+package com.sanisidro.dto;
+
+import lombok.Data;
+
+/**
+ * Resultado de evaluar un código promocional contra un carrito.
+ * Si valida es false, mensaje explica el motivo y descuento es 0; si no se
+ * envió código, mensaje es null y solo se informan los totales.
+ */
+@Data
+public class ResultadoPromocionDTO {
+    private boolean valida;
+    private String mensaje;
+    private String codigo;
+    private String tipoPromocion;
+    private double subtotal;
+    private double descuento;
+    private double total;
+
+    public static ResultadoPromocionDTO invalida(String codigo, double subtotal, String mensaje) {
+        ResultadoPromocionDTO resultado = new ResultadoPromocionDTO();
+        resultado.setValida(false);
+        resultado.setMensaje(mensaje);
+        resultado.setCodigo(codigo);
+        resultado.setSubtotal(subtotal);
+        resultado.setTotal(subtotal);
+        return resultado;
+    }
+}
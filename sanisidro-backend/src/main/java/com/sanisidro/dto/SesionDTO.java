@@ -0,0 +1,36 @@
+package com.sanisidro.dto;
+
+import com.sanisidro.model.Usuario;
+import lombok.Data;
+import java.time.LocalDate;
+
+/**
+ * Respuesta del login: los datos del usuario (sin la contraseña) y el token
+ * que el frontend envía en Authorization: Bearer.
+ */
+@Data
+public class SesionDTO {
+    private Long id;
+    private String nombre;
+    private String email;
+    private String telefono;
+    private Integer pedidos;
+    private LocalDate fechaRegistro;
+    private Boolean activo;
+    private Boolean esAdmin;
+    private String token;
+
+    public static SesionDTO de(Usuario usuario, String token) {
+        SesionDTO sesion = new SesionDTO();
+        sesion.setId(usuario.getId());
+        sesion.setNombre(usuario.getNombre());
+        sesion.setEmail(usuario.getEmail());
+        sesion.setTelefono(usuario.getTelefono());
+        sesion.setPedidos(usuario.getPedidos());
+        sesion.setFechaRegistro(usuario.getFechaRegistro());
+        sesion.setActivo(usuario.getActivo());
+        sesion.setEsAdmin(usuario.getEsAdmin());
+        sesion.setToken(token);
+        return sesion;
+    }
+}
@@ -0,0 +1,22 @@
+package com.sanisidro.dto;
+
+import lombok.Data;
+import java.time.LocalTime;
+
+/**
+ * Ocupación de un turno de reservas para una fecha.
+ */
+@Data
+public class TurnoDisponibilidadDTO {
+    private LocalTime hora;
+    private int capacidad;
+    private int ocupados;
+    private int disponibles;
+
+    public TurnoDisponibilidadDTO(LocalTime hora, int capacidad, int ocupados) {
+        this.hora = hora;
+        this.capacidad = capacidad;
+        this.ocupados = ocupados;
+        this.disponibles = Math.max(capacidad - ocupados, 0);
+    }
+}
@@ -0,0 +1,110 @@
+package com.sanisidro.migracion;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Índices para los finders de los repositorios.
+ *
+ * Es una migración en Java porque las bases existentes pueden tener ya
+ * algunos índices (creados por ddl-auto o por sql/create_reservas_table.sql)
+ * con otros nombres, y MySQL no tiene CREATE INDEX IF NOT EXISTS. Un índice
+ * se crea solo si no hay otro con las mismas columnas, y se eliminan los
+ * índices conocidos de sql/create_reservas_table.sql que quedan cubiertos por
+ * uno compuesto. Los índices creados a mano por otros motivos no se tocan.
+ */
+public class V2__indices_consultas extends BaseJavaMigration {
+
+    // Índices de los scripts antiguos que los compuestos de esta migración reemplazan
+    private static final Map<String, Set<String>> INDICES_ANTIGUOS = Map.of(
+            "reservas", Set.of("idx_email", "idx_fecha")
+    );
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection conexion = context.getConnection();
+
+        // PedidoRepository.findByEmail, contarPorEmails
+        crearIndice(conexion, "pedidos", "idx_pedidos_email", "email");
+        // findByEstado y la cola de cocina (estado IN ... ORDER BY fecha, hora)
+        crearIndice(conexion, "pedidos", "idx_pedidos_estado_fecha_hora", "estado", "fecha", "hora");
+        // streamPorFecha, sumarTotalPorFechaDesde y la reconstrucción de ventas_diarias
+        crearIndice(conexion, "pedidos", "idx_pedidos_fecha_estado", "fecha", "estado");
+
+        // ReservaRepository.findByEmail, findByEmailOrderByFechaDesc
+        crearIndice(conexion, "reservas", "idx_reservas_email_fecha", "email", "fecha");
+        // findByFecha, contarPorFechaDesde, sumarPersonasPorTurnoDesde, streamPorFecha
+        crearIndice(conexion, "reservas", "idx_reservas_fecha_hora", "fecha", "hora");
+        crearIndice(conexion, "reservas", "idx_reservas_estado", "estado");
+
+        // ProductoRepository.findByCategoria, findByDisponible, countByDisponible
+        crearIndice(conexion, "productos", "idx_productos_categoria", "categoria");
+        crearIndice(conexion, "productos", "idx_productos_disponible", "disponible");
+
+        eliminarRedundantes(conexion, "reservas");
+    }
+
+    private void crearIndice(Connection conexion, String tabla, String nombre, String... columnas) throws SQLException {
+        List<String> buscadas = List.of(columnas);
+        if (indices(conexion, tabla).containsValue(buscadas)) {
+            return;
+        }
+        try (Statement statement = conexion.createStatement()) {
+            statement.execute("CREATE INDEX " + nombre + " ON " + tabla + " (" + String.join(", ", columnas) + ")");
+        }
+    }
+
+    /**
+     * Elimina los índices antiguos de la tabla cuyas columnas son el prefijo
+     * de otro índice (por ejemplo idx_email si existe idx_reservas_email_fecha).
+     */
+    private void eliminarRedundantes(Connection conexion, String tabla) throws SQLException {
+        Set<String> antiguos = INDICES_ANTIGUOS.getOrDefault(tabla, Set.of());
+        Map<String, List<String>> indices = indices(conexion, tabla);
+        for (Map.Entry<String, List<String>> indice : indices.entrySet()) {
+            if (!antiguos.contains(indice.getKey().toLowerCase())) {
+                continue;
+            }
+            boolean cubierto = indices.entrySet().stream().anyMatch(otro ->
+                    !otro.getKey().equals(indice.getKey())
+                            && otro.getValue().size() > indice.getValue().size()
+                            && otro.getValue().subList(0, indice.getValue().size()).equals(indice.getValue()));
+            if (cubierto) {
+                try (Statement statement = conexion.createStatement()) {
+                    statement.execute("DROP INDEX " + indice.getKey() + " ON " + tabla);
+                }
+            }
+        }
+    }
+
+    /**
+     * Índices no únicos de la tabla con sus columnas en orden.
+     */
+    private Map<String, List<String>> indices(Connection conexion, String tabla) throws SQLException {
+        Map<String, List<String>> indices = new LinkedHashMap<>();
+        String sql = "SELECT index_name, column_name FROM information_schema.statistics " +
+                     "WHERE table_schema = DATABASE() AND table_name = ? AND non_unique = 1 " +
+                     "ORDER BY index_name, seq_in_index";
+        try (PreparedStatement statement = conexion.prepareStatement(sql)) {
+            statement.setString(1, tabla);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    indices.computeIfAbsent(rs.getString(1), k -> new ArrayList<>())
+                            .add(rs.getString(2).toLowerCase());
+                }
+            }
+        }
+        return indices;
+    }
+}
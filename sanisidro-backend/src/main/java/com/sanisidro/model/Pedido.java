@@ -1,16 +1,26 @@
 package com.sanisidro.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 @Entity
-@Table(name = "pedidos")
+@Table(name = "pedidos", indexes = {
+    @Index(name = "idx_pedidos_email", columnList = "email"),
+    @Index(name = "idx_pedidos_estado_fecha_hora", columnList = "estado, fecha, hora"),
+    @Index(name = "idx_pedidos_fecha_estado", columnList = "fecha, estado")
+})
 public class Pedido {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -46,11 +56,20 @@ public class Pedido {
     
     private String metodoPago;
     
-    @Column(length = 2000)
+    @Column(columnDefinition = "TEXT")
     private String detalles;
     
-    @Transient
-    private java.util.List<ItemPedido> items;
+    // true cuando detalles ya se convirtió a items (ver PedidoService.migrarDetallesAItems)
+    @JsonIgnore
+    @Column(name = "detalles_migrados", nullable = false)
+    private Boolean detallesMigrados = false;
+    
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @BatchSize(size = 100)
+    @OrderBy("id")
+    @OneToMany(mappedBy = "pedido", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<ItemPedido> items = new ArrayList<>();
     
     @CreationTimestamp
     @Column(name = "fecha_creacion", updatable = false)
@@ -60,11 +79,8 @@ public class Pedido {
     @Column(name = "fecha_modificacion")
     private LocalDateTime fechaModificacion;
     
-    // Clase interna para representar items del pedido
-    @Data
-    public static class ItemPedido {
-        private String nombre;
-        private Integer cantidad;
-        private Double precio;
+    public void agregarItem(ItemPedido item) {
+        item.setPedido(this);
+        items.add(item);
     }
 }
@@ -8,7 +8,10 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "productos")
+@Table(name = "productos", indexes = {
+    @Index(name = "idx_productos_categoria", columnList = "categoria"),
+    @Index(name = "idx_productos_disponible", columnList = "disponible")
+})
 public class Producto {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
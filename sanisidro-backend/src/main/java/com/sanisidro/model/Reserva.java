@@ -10,7 +10,11 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "reservas")
+@Table(name = "reservas", indexes = {
+    @Index(name = "idx_reservas_email_fecha", columnList = "email, fecha"),
+    @Index(name = "idx_reservas_fecha_hora", columnList = "fecha, hora"),
+    @Index(name = "idx_reservas_estado", columnList = "estado")
+})
 public class Reserva {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
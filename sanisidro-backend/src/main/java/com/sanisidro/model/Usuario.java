@@ -1,5 +1,6 @@
 package com.sanisidro.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
@@ -23,6 +24,8 @@ public class Usuario {
     
     private String telefono;
     
+    // Se recibe en registro y actualización, pero nunca se devuelve en el JSON
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(nullable = false)
     private String password;
     
@@ -0,0 +1,33 @@
+package com.sanisidro.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+
+/**
+ * Resumen de ventas de un día (sin pedidos cancelados). Lo mantiene
+ * VentasDiariasService; no se escribe desde los controllers.
+ */
+@Data
+@Entity
+@Table(name = "ventas_diarias")
+public class VentaDiaria {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, unique = true)
+    private LocalDate fecha;
+    
+    @Column(nullable = false)
+    private Long pedidos = 0L;
+    
+    @Column(name = "total_bruto", nullable = false)
+    private Double totalBruto = 0.0;
+    
+    @Column(nullable = false)
+    private Double descuentos = 0.0;
+    
+    @Column(name = "total_neto", nullable = false)
+    private Double totalNeto = 0.0;
+}
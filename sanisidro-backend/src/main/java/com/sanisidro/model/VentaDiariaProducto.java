@@ -0,0 +1,34 @@
+package com.sanisidro.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+
+/**
+ * Cantidad vendida de un producto en un día. Se agrupa por nombre porque los
+ * pedidos antiguos no tienen producto_id.
+ */
+@Data
+@Entity
+@Table(name = "ventas_diarias_producto",
+       uniqueConstraints = @UniqueConstraint(name = "uk_venta_producto", columnNames = {"fecha", "nombre"}))
+public class VentaDiariaProducto {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private LocalDate fecha;
+    
+    @Column(nullable = false)
+    private String nombre;
+    
+    @Column(name = "producto_id")
+    private Long productoId;
+    
+    @Column(nullable = false)
+    private Long cantidad = 0L;
+    
+    @Column(nullable = false)
+    private Double importe = 0.0;
+}
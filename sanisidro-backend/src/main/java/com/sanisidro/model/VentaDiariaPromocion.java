@@ -0,0 +1,27 @@
+package com.sanisidro.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+
+@Data
+@Entity
+@Table(name = "ventas_diarias_promocion",
+       uniqueConstraints = @UniqueConstraint(name = "uk_venta_promocion", columnNames = {"fecha", "codigo_promo"}))
+public class VentaDiariaPromocion {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private LocalDate fecha;
+    
+    @Column(name = "codigo_promo", nullable = false)
+    private String codigoPromo;
+    
+    @Column(nullable = false)
+    private Long usos = 0L;
+    
+    @Column(nullable = false)
+    private Double descuentos = 0.0;
+}
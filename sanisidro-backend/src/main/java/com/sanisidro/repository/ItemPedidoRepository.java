@@ -0,0 +1,9 @@
+package com.sanisidro.repository;
+
+import com.sanisidro.model.ItemPedido;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ItemPedidoRepository extends JpaRepository<ItemPedido, Long> {
+}
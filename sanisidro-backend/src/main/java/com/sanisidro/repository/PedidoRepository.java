@@ -1,12 +1,93 @@
 package com.sanisidro.repository;
 
 import com.sanisidro.model.Pedido;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PedidoRepository extends JpaRepository<Pedido, Long> {
+    // Listados completos: los items van en la misma consulta. Con @BatchSize
+    // serían una consulta extra cada 100 pedidos
+    @EntityGraph(attributePaths = "items")
+    @Query("SELECT p FROM Pedido p ORDER BY p.id DESC")
+    List<Pedido> findAllConItems();
+
+    @EntityGraph(attributePaths = "items")
     List<Pedido> findByEmail(String email);
+
+    @EntityGraph(attributePaths = "items")
     List<Pedido> findByEstado(String estado);
+
+    @Query("SELECT p.id FROM Pedido p WHERE p.detalles IS NOT NULL AND p.detallesMigrados = false " +
+           "AND p.items IS EMPTY ORDER BY p.id")
+    List<Long> findIdsSinItems();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Pedido p SET p.detallesMigrados = true WHERE p.id IN :ids")
+    int marcarDetallesMigrados(@Param("ids") Collection<Long> ids);
+    List<Pedido> findAllByOrderByIdDesc(Limit limit);
+    List<Pedido> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
+
+    @Query("SELECT LOWER(p.email) AS email, COUNT(p) AS total FROM Pedido p " +
+           "WHERE p.email IS NOT NULL GROUP BY LOWER(p.email)")
+    List<ConteoPorEmail> contarPorEmail();
+
+    @Query("SELECT LOWER(p.email) AS email, COUNT(p) AS total FROM Pedido p " +
+           "WHERE p.email IN :emails GROUP BY LOWER(p.email)")
+    List<ConteoPorEmail> contarPorEmails(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT MIN(p.fecha) FROM Pedido p")
+    LocalDate primeraFecha();
+
+    @Query("SELECT p.estado, COUNT(p) FROM Pedido p GROUP BY p.estado")
+    List<Object[]> contarPorEstado();
+
+    @Query("SELECT p.fecha, SUM(p.total) FROM Pedido p " +
+           "WHERE p.fecha >= :desde AND p.estado <> 'cancelado' GROUP BY p.fecha")
+    List<Object[]> sumarTotalPorFechaDesde(@Param("desde") LocalDate desde);
+
+    // Para exportaciones. Con fetch size Integer.MIN_VALUE el driver de MySQL
+    // entrega las filas una a una en vez de cargar todo el rango en memoria
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Pedido p WHERE p.fecha BETWEEN :desde AND :hasta ORDER BY p.id")
+    Stream<Pedido> streamPorFecha(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    // Cola de cocina: una fila por item, ya ordenada por llegada del pedido
+    @Query("SELECT p.id AS id, p.cliente AS cliente, p.hora AS hora, p.estado AS estado, " +
+           "i.nombre AS itemNombre, i.cantidad AS itemCantidad " +
+           "FROM Pedido p LEFT JOIN p.items i WHERE p.estado IN :estados " +
+           "ORDER BY p.fecha, p.hora, p.id, i.id")
+    List<FilaCocina> findColaCocina(@Param("estados") Collection<String> estados);
+
+    interface FilaCocina {
+        Long getId();
+        String getCliente();
+        LocalTime getHora();
+        String getEstado();
+        String getItemNombre();
+        Integer getItemCantidad();
+    }
+
+    interface ConteoPorEmail {
+        String getEmail();
+        Long getTotal();
+    }
 }
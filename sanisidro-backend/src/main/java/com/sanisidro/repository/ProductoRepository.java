@@ -1,6 +1,7 @@
 package com.sanisidro.repository;
 
 import com.sanisidro.model.Producto;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import java.util.List;
@@ -9,4 +10,7 @@ import java.util.List;
 public interface ProductoRepository extends JpaRepository<Producto, Long> {
     List<Producto> findByCategoria(String categoria);
     List<Producto> findByDisponible(Boolean disponible);
+    long countByDisponible(Boolean disponible);
+    List<Producto> findAllByOrderByIdDesc(Limit limit);
+    List<Producto> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
 }
@@ -1,10 +1,17 @@
 package com.sanisidro.repository;
 
 import com.sanisidro.model.Reserva;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReservaRepository extends JpaRepository<Reserva, Long> {
@@ -12,4 +19,22 @@ public interface ReservaRepository extends JpaRepository<Reserva, Long> {
     List<Reserva> findByFecha(LocalDate fecha);
     List<Reserva> findByEstado(String estado);
     List<Reserva> findByEmailOrderByFechaDesc(String email);
+    List<Reserva> findAllByOrderByIdDesc(Limit limit);
+    List<Reserva> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
+
+    @Query("SELECT r.fecha, COUNT(r) FROM Reserva r WHERE r.fecha >= :desde GROUP BY r.fecha")
+    List<Object[]> contarPorFechaDesde(@Param("desde") LocalDate desde);
+
+    @Query("SELECT r.fecha, r.hora, SUM(r.numeroPersonas) FROM Reserva r " +
+           "WHERE r.fecha >= :desde AND r.estado <> 'cancelada' GROUP BY r.fecha, r.hora")
+    List<Object[]> sumarPersonasPorTurnoDesde(@Param("desde") LocalDate desde);
+
+    // Para exportaciones. Con fetch size Integer.MIN_VALUE el driver de MySQL
+    // entrega las filas una a una en vez de cargar todo el rango en memoria
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r FROM Reserva r WHERE r.fecha BETWEEN :desde AND :hasta ORDER BY r.id")
+    Stream<Reserva> streamPorFecha(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
 }
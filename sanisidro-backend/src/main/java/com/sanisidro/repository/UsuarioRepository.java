@@ -1,12 +1,16 @@
 package com.sanisidro.repository;
 
 import com.sanisidro.model.Usuario;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     Optional<Usuario> findByEmail(String email);
     boolean existsByEmail(String email);
+    List<Usuario> findAllByOrderByIdDesc(Limit limit);
+    List<Usuario> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
 }
@@ -0,0 +1,38 @@
+package com.sanisidro.repository;
+
+import com.sanisidro.model.VentaDiariaProducto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface VentaDiariaProductoRepository extends JpaRepository<VentaDiariaProducto, Long> {
+    List<VentaDiariaProducto> findByFechaBetweenOrderByFechaAscCantidadDesc(LocalDate desde, LocalDate hasta);
+
+    @Modifying
+    @Query(value = "INSERT INTO ventas_diarias_producto (fecha, nombre, producto_id, cantidad, importe) " +
+                   "VALUES (:fecha, :nombre, :productoId, :cantidad, :importe) " +
+                   "ON DUPLICATE KEY UPDATE cantidad = cantidad + VALUES(cantidad), importe = importe + VALUES(importe), " +
+                   "producto_id = COALESCE(VALUES(producto_id), producto_id)",
+           nativeQuery = true)
+    void acumular(@Param("fecha") LocalDate fecha, @Param("nombre") String nombre, @Param("productoId") Long productoId,
+                  @Param("cantidad") long cantidad, @Param("importe") double importe);
+
+    @Modifying
+    @Query("DELETE FROM VentaDiariaProducto v WHERE v.fecha BETWEEN :desde AND :hasta")
+    int eliminarRango(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    @Modifying
+    @Query(value = "INSERT INTO ventas_diarias_producto (fecha, nombre, producto_id, cantidad, importe) " +
+                   "SELECT p.fecha, i.nombre, MAX(i.producto_id), COALESCE(SUM(i.cantidad), 0), " +
+                   "COALESCE(SUM(i.cantidad * i.precio), 0) " +
+                   "FROM pedido_items i JOIN pedidos p ON p.id = i.pedido_id " +
+                   "WHERE p.fecha BETWEEN :desde AND :hasta AND p.estado <> 'cancelado' AND i.nombre IS NOT NULL " +
+                   "GROUP BY p.fecha, i.nombre",
+           nativeQuery = true)
+    int reconstruirRango(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+}
@@ -0,0 +1,35 @@
+package com.sanisidro.repository;
+
+import com.sanisidro.model.VentaDiariaPromocion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface VentaDiariaPromocionRepository extends JpaRepository<VentaDiariaPromocion, Long> {
+    List<VentaDiariaPromocion> findByFechaBetweenOrderByFechaAscCodigoPromoAsc(LocalDate desde, LocalDate hasta);
+
+    @Modifying
+    @Query(value = "INSERT INTO ventas_diarias_promocion (fecha, codigo_promo, usos, descuentos) " +
+                   "VALUES (:fecha, :codigo, :usos, :descuentos) " +
+                   "ON DUPLICATE KEY UPDATE usos = usos + VALUES(usos), descuentos = descuentos + VALUES(descuentos)",
+           nativeQuery = true)
+    void acumular(@Param("fecha") LocalDate fecha, @Param("codigo") String codigo,
+                  @Param("usos") long usos, @Param("descuentos") double descuentos);
+
+    @Modifying
+    @Query("DELETE FROM VentaDiariaPromocion v WHERE v.fecha BETWEEN :desde AND :hasta")
+    int eliminarRango(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    @Modifying
+    @Query(value = "INSERT INTO ventas_diarias_promocion (fecha, codigo_promo, usos, descuentos) " +
+                   "SELECT fecha, codigo_promo, COUNT(*), COALESCE(SUM(descuento), 0) FROM pedidos " +
+                   "WHERE fecha BETWEEN :desde AND :hasta AND estado <> 'cancelado' AND codigo_promo IS NOT NULL " +
+                   "GROUP BY fecha, codigo_promo",
+           nativeQuery = true)
+    int reconstruirRango(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+}
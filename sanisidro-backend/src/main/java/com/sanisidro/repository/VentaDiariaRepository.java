@@ -0,0 +1,38 @@
+package com.sanisidro.repository;
+
+import com.sanisidro.model.VentaDiaria;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface VentaDiariaRepository extends JpaRepository<VentaDiaria, Long> {
+    List<VentaDiaria> findByFechaBetweenOrderByFecha(LocalDate desde, LocalDate hasta);
+
+    // Suma (o resta, con valores negativos) en una sola sentencia atómica
+    @Modifying
+    @Query(value = "INSERT INTO ventas_diarias (fecha, pedidos, total_bruto, descuentos, total_neto) " +
+                   "VALUES (:fecha, :pedidos, :bruto, :descuentos, :neto) " +
+                   "ON DUPLICATE KEY UPDATE pedidos = pedidos + VALUES(pedidos), " +
+                   "total_bruto = total_bruto + VALUES(total_bruto), " +
+                   "descuentos = descuentos + VALUES(descuentos), " +
+                   "total_neto = total_neto + VALUES(total_neto)",
+           nativeQuery = true)
+    void acumular(@Param("fecha") LocalDate fecha, @Param("pedidos") long pedidos, @Param("bruto") double bruto,
+                  @Param("descuentos") double descuentos, @Param("neto") double neto);
+
+    @Modifying
+    @Query("DELETE FROM VentaDiaria v WHERE v.fecha BETWEEN :desde AND :hasta")
+    int eliminarRango(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    @Modifying
+    @Query(value = "INSERT INTO ventas_diarias (fecha, pedidos, total_bruto, descuentos, total_neto) " +
+                   "SELECT fecha, COUNT(*), COALESCE(SUM(subtotal), 0), COALESCE(SUM(descuento), 0), COALESCE(SUM(total), 0) " +
+                   "FROM pedidos WHERE fecha BETWEEN :desde AND :hasta AND estado <> 'cancelado' GROUP BY fecha",
+           nativeQuery = true)
+    int reconstruirRango(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+}
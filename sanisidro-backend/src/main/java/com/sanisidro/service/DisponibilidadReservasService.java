@@ -0,0 +1,193 @@
+package com.sanisidro.service;
+
+import com.sanisidro.dto.TurnoDisponibilidadDTO;
+import com.sanisidro.model.Reserva;
+import com.sanisidro.repository.ReservaRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ocupación de mesas por turno (fecha + hora de inicio del turno) en memoria.
+ *
+ * Se carga al iniciar con la suma de personas de las reservas futuras no
+ * canceladas y luego ReservaService la actualiza en cada escritura. Reservar
+ * un cupo es una operación atómica sobre el contador del turno, así que dos
+ * reservas simultáneas no pueden superar la capacidad.
+ */
+@Service
+public class DisponibilidadReservasService {
+
+    public static final String ESTADO_CANCELADA = "cancelada";
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Value("${reservas.capacidad-por-turno:40}")
+    private int capacidadPorTurno;
+
+    @Value("${reservas.duracion-turno-minutos:60}")
+    private int duracionTurnoMinutos;
+
+    @Value("${reservas.hora-apertura:10:00}")
+    private String horaApertura;
+
+    @Value("${reservas.hora-cierre:21:00}")
+    private String horaCierre;
+
+    private final Map<Turno, AtomicInteger> ocupacion = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void inicializar() {
+        for (Object[] fila : reservaRepository.sumarPersonasPorTurnoDesde(LocalDate.now())) {
+            Turno turno = turno((LocalDate) fila[0], (LocalTime) fila[1]);
+            contador(turno).addAndGet(((Long) fila[2]).intValue());
+        }
+    }
+
+    @Scheduled(cron = "0 5 0 * * *")
+    public void descartarDiasPasados() {
+        LocalDate hoy = LocalDate.now();
+        ocupacion.keySet().removeIf(turno -> turno.fecha().isBefore(hoy));
+    }
+
+    public List<TurnoDisponibilidadDTO> consultar(LocalDate fecha) {
+        List<TurnoDisponibilidadDTO> turnos = new ArrayList<>();
+        LocalTime cierre = LocalTime.parse(horaCierre);
+        for (LocalTime hora = LocalTime.parse(horaApertura); hora.isBefore(cierre);
+             hora = hora.plusMinutes(duracionTurnoMinutos)) {
+            AtomicInteger ocupados = ocupacion.get(new Turno(fecha, hora));
+            turnos.add(new TurnoDisponibilidadDTO(hora, capacidadPorTurno, ocupados != null ? ocupados.get() : 0));
+        }
+        return turnos;
+    }
+
+    /**
+     * Valida la reserva e intenta ocupar sus cupos. Devuelve false si el
+     * turno no tiene capacidad suficiente; las reservas canceladas no ocupan
+     * cupo.
+     *
+     * @throws IllegalArgumentException si faltan datos, el número de personas
+     *         está fuera de 1..capacidad o el horario es pasado o fuera de atención
+     */
+    public boolean reservar(Reserva reserva) {
+        validar(reserva, null);
+        if (!ocupaCupo(reserva)) {
+            return true;
+        }
+        return ocupar(turno(reserva.getFecha(), reserva.getHora()), reserva.getNumeroPersonas(), 0);
+    }
+
+    /**
+     * Pasa los cupos de anterior a reserva. Primero ocupa el turno nuevo y
+     * solo si hay capacidad libera el anterior, para que otra reserva no tome
+     * el cupo liberado mientras tanto. En el mismo turno solo se ocupa la
+     * diferencia de personas. Se permite conservar un horario ya pasado, por
+     * ejemplo para marcar una reserva como completada.
+     *
+     * @throws IllegalArgumentException igual que {@link #reservar(Reserva)}
+     */
+    public boolean cambiar(Reserva reserva, Reserva anterior) {
+        validar(reserva, anterior);
+        Turno turnoAnterior = ocupaCupo(anterior) ? turno(anterior.getFecha(), anterior.getHora()) : null;
+        if (ocupaCupo(reserva)) {
+            Turno turnoNuevo = turno(reserva.getFecha(), reserva.getHora());
+            int yaOcupados = turnoNuevo.equals(turnoAnterior) ? anterior.getNumeroPersonas() : 0;
+            if (!ocupar(turnoNuevo, reserva.getNumeroPersonas(), yaOcupados)) {
+                return false;
+            }
+            if (turnoNuevo.equals(turnoAnterior)) {
+                return true;
+            }
+        }
+        liberar(anterior);
+        return true;
+    }
+
+    private boolean ocupar(Turno turno, int personas, int yaOcupados) {
+        AtomicInteger contador = contador(turno);
+        while (true) {
+            int actual = contador.get();
+            int nuevo = actual + personas - yaOcupados;
+            if (nuevo > capacidadPorTurno && personas > yaOcupados) {
+                return false;
+            }
+            if (contador.compareAndSet(actual, nuevo)) {
+                return true;
+            }
+        }
+    }
+
+    private void validar(Reserva reserva, Reserva anterior) {
+        LocalDate fecha = reserva.getFecha();
+        LocalTime hora = reserva.getHora();
+        Integer personas = reserva.getNumeroPersonas();
+        if (fecha == null || hora == null) {
+            throw new IllegalArgumentException("La fecha y la hora son obligatorias");
+        }
+        // Un número negativo pasaría el control de capacidad y liberaría cupos
+        if (personas == null || personas < 1 || personas > capacidadPorTurno) {
+            throw new IllegalArgumentException("El número de personas debe estar entre 1 y " + capacidadPorTurno);
+        }
+        boolean mismoHorario = anterior != null
+                && fecha.equals(anterior.getFecha()) && hora.equals(anterior.getHora());
+        if (mismoHorario) {
+            return;
+        }
+        if (hora.isBefore(LocalTime.parse(horaApertura)) || !hora.isBefore(LocalTime.parse(horaCierre))) {
+            throw new IllegalArgumentException("El horario de reservas es de " + horaApertura + " a " + horaCierre);
+        }
+        if (LocalDateTime.of(fecha, hora).isBefore(LocalDateTime.now())) {
+            throw new IllegalArgumentException("No se puede reservar en una fecha u hora pasada");
+        }
+    }
+
+    /**
+     * Ocupa los cupos sin validar la capacidad. Solo se usa para restaurar el
+     * estado anterior cuando no se pudo guardar una actualización.
+     */
+    public void restaurar(Reserva reserva) {
+        if (ocupaCupo(reserva)) {
+            contador(turno(reserva.getFecha(), reserva.getHora())).addAndGet(reserva.getNumeroPersonas());
+        }
+    }
+
+    public void liberar(Reserva reserva) {
+        if (ocupaCupo(reserva)) {
+            contador(turno(reserva.getFecha(), reserva.getHora())).addAndGet(-reserva.getNumeroPersonas());
+        }
+    }
+
+    private boolean ocupaCupo(Reserva reserva) {
+        return reserva.getFecha() != null && reserva.getHora() != null
+                && reserva.getNumeroPersonas() != null
+                && !ESTADO_CANCELADA.equals(reserva.getEstado());
+    }
+
+    private Turno turno(LocalDate fecha, LocalTime hora) {
+        LocalTime apertura = LocalTime.parse(horaApertura);
+        long minutos = Duration.between(apertura, hora).toMinutes();
+        if (minutos < 0) {
+            return new Turno(fecha, hora.withSecond(0).withNano(0));
+        }
+        return new Turno(fecha, apertura.plusMinutes(minutos / duracionTurnoMinutos * duracionTurnoMinutos));
+    }
+
+    private AtomicInteger contador(Turno turno) {
+        return ocupacion.computeIfAbsent(turno, t -> new AtomicInteger());
+    }
+
+    private record Turno(LocalDate fecha, LocalTime inicio) {
+    }
+}
@@ -0,0 +1,254 @@
+package com.sanisidro.service;
+
+import com.sanisidro.dto.EstadisticasDTO;
+import com.sanisidro.model.Pedido;
+import com.sanisidro.model.Producto;
+import com.sanisidro.model.Reserva;
+import com.sanisidro.repository.PedidoRepository;
+import com.sanisidro.repository.ProductoRepository;
+import com.sanisidro.repository.ReservaRepository;
+import com.sanisidro.repository.UsuarioRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Contadores del dashboard mantenidos en memoria.
+ *
+ * Se cargan una sola vez al iniciar con consultas agrupadas y luego los
+ * servicios de pedidos, reservas, productos y usuarios los actualizan en cada
+ * escritura, así leer las estadísticas no consulta la base de datos. Los
+ * cambios hechos dentro de una transacción se aplican al confirmarla.
+ */
+@Service
+public class EstadisticasService {
+
+    private static final String ESTADO_CANCELADO = "cancelado";
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private final Map<String, AtomicLong> pedidosPorEstado = new ConcurrentHashMap<>();
+    private final Map<LocalDate, DoubleAdder> ingresosPorFecha = new ConcurrentHashMap<>();
+    private final Map<LocalDate, AtomicLong> reservasPorFecha = new ConcurrentHashMap<>();
+    private final AtomicLong reservasTotales = new AtomicLong();
+    private final AtomicLong productos = new AtomicLong();
+    private final AtomicLong productosActivos = new AtomicLong();
+    private final AtomicLong usuarios = new AtomicLong();
+
+    @PostConstruct
+    public void inicializar() {
+        LocalDate hoy = LocalDate.now();
+
+        for (Object[] fila : pedidoRepository.contarPorEstado()) {
+            contador(pedidosPorEstado, (String) fila[0]).set((Long) fila[1]);
+        }
+        for (Object[] fila : pedidoRepository.sumarTotalPorFechaDesde(hoy)) {
+            if (fila[1] != null) {
+                acumulador((LocalDate) fila[0]).add((Double) fila[1]);
+            }
+        }
+        for (Object[] fila : reservaRepository.contarPorFechaDesde(hoy)) {
+            contador(reservasPorFecha, (LocalDate) fila[0]).set((Long) fila[1]);
+        }
+        reservasTotales.set(reservaRepository.count());
+        productos.set(productoRepository.count());
+        productosActivos.set(productoRepository.countByDisponible(true));
+        usuarios.set(usuarioRepository.count());
+    }
+
+    public EstadisticasDTO obtener() {
+        LocalDate hoy = LocalDate.now();
+        // Los días ya pasados no se vuelven a consultar
+        ingresosPorFecha.keySet().removeIf(fecha -> fecha.isBefore(hoy));
+        reservasPorFecha.keySet().removeIf(fecha -> fecha.isBefore(hoy));
+
+        Map<String, Long> porEstado = new TreeMap<>();
+        long totalPedidos = 0;
+        for (Map.Entry<String, AtomicLong> entry : pedidosPorEstado.entrySet()) {
+            long cantidad = entry.getValue().get();
+            porEstado.put(entry.getKey(), cantidad);
+            totalPedidos += cantidad;
+        }
+
+        DoubleAdder ingresosHoy = ingresosPorFecha.get(hoy);
+        AtomicLong reservasHoy = reservasPorFecha.get(hoy);
+
+        EstadisticasDTO dto = new EstadisticasDTO();
+        dto.setTotalPedidos(totalPedidos);
+        dto.setPedidosPorEstado(porEstado);
+        dto.setIngresosHoy(ingresosHoy != null ? ingresosHoy.sum() : 0.0);
+        dto.setReservasHoy(reservasHoy != null ? reservasHoy.get() : 0);
+        dto.setReservasTotales(reservasTotales.get());
+        dto.setProductos(productos.get());
+        dto.setProductosActivos(productosActivos.get());
+        dto.setUsuariosRegistrados(usuarios.get());
+        return dto;
+    }
+
+    // ============ PEDIDOS ============
+
+    public void pedidoCreado(Pedido pedido) {
+        String estado = pedido.getEstado();
+        LocalDate fecha = pedido.getFecha();
+        Double total = pedido.getTotal();
+        alConfirmar(() -> {
+            contador(pedidosPorEstado, estado).incrementAndGet();
+            sumarIngreso(estado, fecha, total, 1);
+        });
+    }
+
+    public void pedidoEstadoCambiado(Pedido pedido, String estadoAnterior) {
+        String estado = pedido.getEstado();
+        if (estadoAnterior == null || estadoAnterior.equals(estado)) {
+            return;
+        }
+        LocalDate fecha = pedido.getFecha();
+        Double total = pedido.getTotal();
+        alConfirmar(() -> {
+            contador(pedidosPorEstado, estadoAnterior).decrementAndGet();
+            contador(pedidosPorEstado, estado).incrementAndGet();
+            if (ESTADO_CANCELADO.equals(estado)) {
+                agregarIngreso(fecha, total, -1);
+            } else if (ESTADO_CANCELADO.equals(estadoAnterior)) {
+                agregarIngreso(fecha, total, 1);
+            }
+        });
+    }
+
+    public void pedidoEliminado(Pedido pedido) {
+        String estado = pedido.getEstado();
+        LocalDate fecha = pedido.getFecha();
+        Double total = pedido.getTotal();
+        alConfirmar(() -> {
+            contador(pedidosPorEstado, estado).decrementAndGet();
+            sumarIngreso(estado, fecha, total, -1);
+        });
+    }
+
+    private void sumarIngreso(String estado, LocalDate fecha, Double total, int signo) {
+        if (!ESTADO_CANCELADO.equals(estado)) {
+            agregarIngreso(fecha, total, signo);
+        }
+    }
+
+    private void agregarIngreso(LocalDate fecha, Double total, int signo) {
+        if (fecha != null && total != null && !fecha.isBefore(LocalDate.now())) {
+            acumulador(fecha).add(signo * total);
+        }
+    }
+
+    // ============ RESERVAS ============
+
+    public void reservaCreada(Reserva reserva) {
+        LocalDate fecha = reserva.getFecha();
+        alConfirmar(() -> {
+            reservasTotales.incrementAndGet();
+            contarReserva(fecha, 1);
+        });
+    }
+
+    public void reservaActualizada(LocalDate fechaAnterior, Reserva reserva) {
+        LocalDate fecha = reserva.getFecha();
+        alConfirmar(() -> {
+            contarReserva(fechaAnterior, -1);
+            contarReserva(fecha, 1);
+        });
+    }
+
+    public void reservaEliminada(Reserva reserva) {
+        LocalDate fecha = reserva.getFecha();
+        alConfirmar(() -> {
+            reservasTotales.decrementAndGet();
+            contarReserva(fecha, -1);
+        });
+    }
+
+    private void contarReserva(LocalDate fecha, int delta) {
+        if (fecha != null && !fecha.isBefore(LocalDate.now())) {
+            contador(reservasPorFecha, fecha).addAndGet(delta);
+        }
+    }
+
+    // ============ PRODUCTOS ============
+
+    public void productoCreado(Producto producto) {
+        boolean disponible = Boolean.TRUE.equals(producto.getDisponible());
+        alConfirmar(() -> {
+            productos.incrementAndGet();
+            if (disponible) {
+                productosActivos.incrementAndGet();
+            }
+        });
+    }
+
+    public void productoActualizado(Boolean disponibleAnterior, Producto producto) {
+        boolean antes = Boolean.TRUE.equals(disponibleAnterior);
+        boolean ahora = Boolean.TRUE.equals(producto.getDisponible());
+        if (antes != ahora) {
+            alConfirmar(() -> productosActivos.addAndGet(ahora ? 1 : -1));
+        }
+    }
+
+    public void productoEliminado(Producto producto) {
+        boolean disponible = Boolean.TRUE.equals(producto.getDisponible());
+        alConfirmar(() -> {
+            productos.decrementAndGet();
+            if (disponible) {
+                productosActivos.decrementAndGet();
+            }
+        });
+    }
+
+    // ============ USUARIOS ============
+
+    public void usuarioRegistrado() {
+        alConfirmar(usuarios::incrementAndGet);
+    }
+
+    public void usuarioEliminado() {
+        alConfirmar(usuarios::decrementAndGet);
+    }
+
+    /**
+     * Dentro de una transacción los contadores cambian recién después del
+     * commit (un rollback no los deja desfasados); fuera de ella, en el acto.
+     */
+    private static void alConfirmar(Runnable cambio) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cambio.run();
+                }
+            });
+        } else {
+            cambio.run();
+        }
+    }
+
+    private static <K> AtomicLong contador(Map<K, AtomicLong> mapa, K clave) {
+        return mapa.computeIfAbsent(clave, k -> new AtomicLong());
+    }
+
+    private DoubleAdder acumulador(LocalDate fecha) {
+        return ingresosPorFecha.computeIfAbsent(fecha, f -> new DoubleAdder());
+    }
+}
@@ -0,0 +1,176 @@
+package com.sanisidro.service;
+
+import com.sanisidro.model.Pedido;
+import com.sanisidro.model.Reserva;
+import com.sanisidro.repository.PedidoRepository;
+import com.sanisidro.repository.ReservaRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exporta pedidos y reservas a Excel para administración.
+ *
+ * Las filas se leen con un Stream de JPA y se escriben con SXSSFWorkbook, que
+ * solo mantiene en memoria una ventana de filas (el resto va a un temporal en
+ * disco), así que exportar un año completo usa memoria constante.
+ */
+@Service
+public class ExportacionService {
+
+    private static final int VENTANA_FILAS = 100;
+    private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("HH:mm");
+
+    private static final String[] COLUMNAS_PEDIDOS = {
+            "ID", "Factura", "Fecha", "Hora", "Cliente", "Email", "Teléfono", "Estado",
+            "Método de pago", "Subtotal", "Descuento", "Código promo", "Total"
+    };
+
+    private static final String[] COLUMNAS_RESERVAS = {
+            "ID", "Fecha", "Hora", "Nombre", "Email", "Teléfono", "Personas", "Estado", "Comentarios"
+    };
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public void exportarPedidos(LocalDate desde, LocalDate hasta, OutputStream salida) throws IOException {
+        try (Stream<Pedido> pedidos = pedidoRepository.streamPorFecha(desde, hasta)) {
+            escribir("Pedidos", COLUMNAS_PEDIDOS, pedidos.iterator(), salida, (fila, pedido, estilos) -> {
+                numero(fila, 0, pedido.getId(), null);
+                texto(fila, 1, pedido.getNumeroFactura());
+                fecha(fila, 2, pedido.getFecha(), estilos.fecha());
+                texto(fila, 3, hora(pedido.getHora()));
+                texto(fila, 4, pedido.getCliente());
+                texto(fila, 5, pedido.getEmail());
+                texto(fila, 6, pedido.getTelefono());
+                texto(fila, 7, pedido.getEstado());
+                texto(fila, 8, pedido.getMetodoPago());
+                numero(fila, 9, pedido.getSubtotal(), estilos.moneda());
+                numero(fila, 10, pedido.getDescuento(), estilos.moneda());
+                texto(fila, 11, pedido.getCodigoPromo());
+                numero(fila, 12, pedido.getTotal(), estilos.moneda());
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void exportarReservas(LocalDate desde, LocalDate hasta, OutputStream salida) throws IOException {
+        try (Stream<Reserva> reservas = reservaRepository.streamPorFecha(desde, hasta)) {
+            escribir("Reservas", COLUMNAS_RESERVAS, reservas.iterator(), salida, (fila, reserva, estilos) -> {
+                numero(fila, 0, reserva.getId(), null);
+                fecha(fila, 1, reserva.getFecha(), estilos.fecha());
+                texto(fila, 2, hora(reserva.getHora()));
+                texto(fila, 3, reserva.getNombre());
+                texto(fila, 4, reserva.getEmail());
+                texto(fila, 5, reserva.getTelefono());
+                numero(fila, 6, reserva.getNumeroPersonas(), null);
+                texto(fila, 7, reserva.getEstado());
+                texto(fila, 8, reserva.getComentarios());
+            });
+        }
+    }
+
+    private <T> void escribir(String nombreHoja, String[] columnas, Iterator<T> filas,
+                              OutputStream salida, EscritorFila<T> escritor) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(VENTANA_FILAS);
+        workbook.setCompressTempFiles(true);
+        try {
+            SXSSFSheet hoja = workbook.createSheet(nombreHoja);
+            Estilos estilos = crearEstilos(workbook);
+
+            Row encabezado = hoja.createRow(0);
+            for (int i = 0; i < columnas.length; i++) {
+                Cell celda = encabezado.createCell(i);
+                celda.setCellValue(columnas[i]);
+                celda.setCellStyle(estilos.encabezado());
+            }
+            hoja.createFreezePane(0, 1);
+
+            int numeroFila = 1;
+            while (filas.hasNext()) {
+                T entidad = filas.next();
+                escritor.escribir(hoja.createRow(numeroFila++), entidad, estilos);
+                // Se saca del contexto de persistencia para que no crezca con cada fila
+                entityManager.detach(entidad);
+            }
+
+            workbook.write(salida);
+        } finally {
+            // Borra los temporales de disco de la ventana de filas
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static Estilos crearEstilos(SXSSFWorkbook workbook) {
+        Font negrita = workbook.createFont();
+        negrita.setBold(true);
+        CellStyle encabezado = workbook.createCellStyle();
+        encabezado.setFont(negrita);
+
+        CellStyle fecha = workbook.createCellStyle();
+        fecha.setDataFormat(workbook.createDataFormat().getFormat("dd/mm/yyyy"));
+
+        CellStyle moneda = workbook.createCellStyle();
+        moneda.setDataFormat(workbook.createDataFormat().getFormat("\"S/\" #,##0.00"));
+        return new Estilos(encabezado, fecha, moneda);
+    }
+
+    private static void texto(Row fila, int columna, String valor) {
+        if (valor != null) {
+            fila.createCell(columna).setCellValue(valor);
+        }
+    }
+
+    private static void numero(Row fila, int columna, Number valor, CellStyle estilo) {
+        if (valor != null) {
+            Cell celda = fila.createCell(columna);
+            celda.setCellValue(valor.doubleValue());
+            if (estilo != null) {
+                celda.setCellStyle(estilo);
+            }
+        }
+    }
+
+    private static void fecha(Row fila, int columna, LocalDate valor, CellStyle estilo) {
+        if (valor != null) {
+            Cell celda = fila.createCell(columna);
+            celda.setCellValue(valor);
+            celda.setCellStyle(estilo);
+        }
+    }
+
+    private static String hora(LocalTime hora) {
+        return hora == null ? null : hora.format(FORMATO_HORA);
+    }
+
+    @FunctionalInterface
+    private interface EscritorFila<T> {
+        void escribir(Row fila, T entidad, Estilos estilos);
+    }
+
+    private record Estilos(CellStyle encabezado, CellStyle fecha, CellStyle moneda) {
+    }
+}
@@ -0,0 +1,518 @@
+package com.sanisidro.service;
+
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Striped;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Descarga y guarda en disco las imágenes remotas que sirve /api/image-proxy.
+ *
+ * Usa un único HttpClient (con pool de conexiones) y una cache en disco con
+ * límite de tamaño y desalojo LRU, indexada por el hash de la URL. Las
+ * entradas vencidas se revalidan con ETag/Last-Modified en vez de volver a
+ * descargarse.
+ */
+@Service
+public class ImagenProxyService {
+
+    @Value("${imagenes.proxy.cache-dir:cache/imagenes}")
+    private String directorioCache;
+
+    @Value("${imagenes.proxy.cache-max-mb:512}")
+    private long cacheMaxMb;
+
+    @Value("${imagenes.proxy.max-bytes-imagen:10485760}")
+    private long maxBytesImagen;
+
+    @Value("${imagenes.proxy.revalidar-minutos:1440}")
+    private long revalidarMinutos;
+
+    @Value("${imagenes.proxy.timeout-conexion-ms:3000}")
+    private long timeoutConexionMs;
+
+    @Value("${imagenes.proxy.timeout-lectura-ms:10000}")
+    private long timeoutLecturaMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private HttpClient httpClient;
+    private Path directorio;
+    private long totalBytes = 0;
+
+    // Métricas registradas una sola vez para no crear objetos en cada petición
+    private Counter aciertosCache;
+    private Counter fallosCache;
+    private Timer descargasNuevas;
+    private Timer descargasRevalidadas;
+    private Timer descargasNoEncontradas;
+    private Timer descargasError;
+
+    // Orden de acceso: la primera entrada es la menos usada recientemente
+    private final LinkedHashMap<String, Entrada> indice = new LinkedHashMap<>(256, 0.75f, true);
+    // Evita que dos peticiones descarguen la misma URL a la vez
+    private final Striped<Lock> candados = Striped.lock(64);
+    // Protege indice y totalBytes; ReentrantLock en vez de synchronized para
+    // no fijar hilos virtuales a su hilo portador
+    private final ReentrantLock candadoIndice = new ReentrantLock();
+    // Corta las descargas cuyo cuerpo no termina dentro del timeout de lectura
+    private final ScheduledExecutorService vigilante = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "imagen-proxy-timeout");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    @PostConstruct
+    public void inicializar() throws IOException {
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(timeoutConexionMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        directorio = Paths.get(directorioCache);
+        Files.createDirectories(directorio);
+        cargarIndice();
+
+        aciertosCache = Counter.builder("imagen.proxy.cache").tag("resultado", "hit").register(meterRegistry);
+        fallosCache = Counter.builder("imagen.proxy.cache").tag("resultado", "miss").register(meterRegistry);
+        descargasNuevas = timerDescargas("descargada");
+        descargasRevalidadas = timerDescargas("revalidada");
+        descargasNoEncontradas = timerDescargas("no_encontrada");
+        descargasError = timerDescargas("error");
+        Gauge.builder("imagen.proxy.cache.bytes", this, ImagenProxyService::bytesEnCache).register(meterRegistry);
+    }
+
+    private Timer timerDescargas(String resultado) {
+        return Timer.builder("imagen.proxy.descargas")
+                .description("Descargas y revalidaciones de imágenes remotas")
+                .tag("resultado", resultado)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private double bytesEnCache() {
+        candadoIndice.lock();
+        try {
+            return totalBytes;
+        } finally {
+            candadoIndice.unlock();
+        }
+    }
+
+    /**
+     * @return la imagen en cache (descargada o revalidada si hacía falta) con
+     *         su contenido ya abierto, o null si el origen no la tiene. Quien
+     *         la recibe debe cerrar el stream.
+     * @throws IllegalArgumentException si la URL no es http(s), la imagen
+     *         excede el tamaño máximo o el contenido no es una imagen
+     * @throws HttpTimeoutException si el origen no responde o no termina de
+     *         enviar la imagen dentro de los timeouts
+     * @throws IOException si el origen falla (5xx, conexión cortada)
+     */
+    public ImagenCacheada obtener(String url) throws IOException, InterruptedException {
+        URI uri = URI.create(url);
+        if (!"http".equalsIgnoreCase(uri.getScheme()) && !"https".equalsIgnoreCase(uri.getScheme())) {
+            throw new IllegalArgumentException("Solo se permiten URLs http(s)");
+        }
+        String clave = Hashing.sha256().hashString(url, StandardCharsets.UTF_8).toString();
+
+        // Los aciertos no toman el candado: no esperan descargas de otras URLs del mismo stripe
+        ImagenCacheada enCache = abrirSiVigente(clave);
+        if (enCache != null) {
+            aciertosCache.increment();
+            return enCache;
+        }
+
+        Lock candado = candados.get(clave);
+        candado.lock();
+        try {
+            // Otra petición pudo descargarla mientras se esperaba el candado
+            enCache = abrirSiVigente(clave);
+            if (enCache != null) {
+                aciertosCache.increment();
+                return enCache;
+            }
+            fallosCache.increment();
+            Entrada entrada = buscar(clave);
+            long inicio = System.nanoTime();
+            Entrada nueva;
+            try {
+                nueva = descargar(uri, clave, entrada);
+            } catch (IOException | RuntimeException e) {
+                descargasError.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+            Timer timer;
+            if (nueva == null) {
+                timer = descargasNoEncontradas;
+            } else if (entrada != null && nueva.descargadoEn() == entrada.descargadoEn()) {
+                // 304: se conservó el archivo descargado antes
+                timer = descargasRevalidadas;
+            } else {
+                timer = descargasNuevas;
+            }
+            timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return nueva == null ? null : abrir(nueva);
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    private ImagenCacheada abrirSiVigente(String clave) throws IOException {
+        Entrada entrada = buscar(clave);
+        if (entrada == null
+                || System.currentTimeMillis() - entrada.validadoEn() >= Duration.ofMinutes(revalidarMinutos).toMillis()) {
+            return null;
+        }
+        return abrir(entrada);
+    }
+
+    /**
+     * Abre el archivo de la entrada y comprueba después que siga en el índice.
+     * Los archivos se borran solo después de salir del índice, así que si la
+     * entrada sigue ahí el stream abierto es válido aunque luego se desaloje
+     * o se reemplace (cada versión descargada tiene su propio archivo).
+     */
+    private ImagenCacheada abrir(Entrada entrada) throws IOException {
+        InputStream contenido;
+        try {
+            contenido = Files.newInputStream(archivo(entrada));
+        } catch (NoSuchFileException e) {
+            // Borrado fuera de la aplicación: se quita del índice y se vuelve a descargar
+            quitar(entrada);
+            return null;
+        }
+        Entrada actual;
+        candadoIndice.lock();
+        try {
+            actual = indice.get(entrada.clave());
+        } finally {
+            candadoIndice.unlock();
+        }
+        if (actual == null || actual.descargadoEn() != entrada.descargadoEn()) {
+            contenido.close();
+            return null;
+        }
+        return new ImagenCacheada(contenido, actual);
+    }
+
+    private Entrada descargar(URI uri, String clave, Entrada anterior) throws IOException, InterruptedException {
+        HttpRequest.Builder peticion = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(timeoutLecturaMs))
+                .GET();
+        if (anterior != null) {
+            if (anterior.etagOrigen() != null) {
+                peticion.header("If-None-Match", anterior.etagOrigen());
+            }
+            if (anterior.lastModifiedOrigen() != null) {
+                peticion.header("If-Modified-Since", anterior.lastModifiedOrigen());
+            }
+        }
+
+        HttpResponse<InputStream> respuesta = httpClient.send(peticion.build(), HttpResponse.BodyHandlers.ofInputStream());
+        // HttpRequest.timeout solo cubre hasta los headers: si el cuerpo no
+        // termina a tiempo se cierra el stream, lo que corta la lectura en curso
+        InputStream cuerpo = respuesta.body();
+        AtomicBoolean vencida = new AtomicBoolean();
+        ScheduledFuture<?> vigilancia = vigilante.schedule(() -> {
+            vencida.set(true);
+            cerrarSilencioso(cuerpo);
+        }, timeoutLecturaMs, TimeUnit.MILLISECONDS);
+        try (cuerpo) {
+            if (respuesta.statusCode() == 304 && anterior != null) {
+                Entrada revalidada = anterior.revalidada(System.currentTimeMillis());
+                guardarMetadatos(revalidada);
+                registrar(revalidada);
+                return revalidada;
+            }
+            if (respuesta.statusCode() >= 500) {
+                throw new IOException("El origen respondió " + respuesta.statusCode());
+            }
+            if (respuesta.statusCode() != 200) {
+                return null;
+            }
+            long declarado = respuesta.headers().firstValueAsLong("Content-Length").orElse(-1);
+            if (declarado > maxBytesImagen) {
+                throw new IllegalArgumentException("La imagen excede el tamaño máximo");
+            }
+
+            // Se copia a un temporal con el límite de tamaño; el archivo final
+            // solo aparece cuando la descarga termina bien
+            Path temporal = Files.createTempFile(directorio, clave, ".tmp");
+            try {
+                long tamano = copiarConLimite(cuerpo, temporal);
+                String contentType = TipoImagen.detectar(temporal);
+                if (contentType == null) {
+                    throw new IllegalArgumentException("El contenido no es una imagen");
+                }
+                long ahora = System.currentTimeMillis();
+                Entrada entrada = new Entrada(clave, contentType,
+                        respuesta.headers().firstValue("ETag").orElse(null),
+                        respuesta.headers().firstValue("Last-Modified").orElse(null),
+                        ahora, ahora, tamano);
+                Files.move(temporal, archivo(entrada), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                guardarMetadatos(entrada);
+                registrar(entrada);
+                return entrada;
+            } finally {
+                Files.deleteIfExists(temporal);
+            }
+        } catch (IOException e) {
+            if (vencida.get()) {
+                // El vigilante cerró el stream: la lectura falló por el timeout
+                throw new HttpTimeoutException("La descarga de la imagen superó " + timeoutLecturaMs + " ms");
+            }
+            throw e;
+        } finally {
+            vigilancia.cancel(false);
+        }
+    }
+
+    private static void cerrarSilencioso(InputStream stream) {
+        try {
+            stream.close();
+        } catch (IOException e) {
+            // Solo se usa para cortar una descarga lenta
+        }
+    }
+
+    private long copiarConLimite(InputStream entrada, Path destino) throws IOException {
+        byte[] buffer = new byte[16 * 1024];
+        long total = 0;
+        try (OutputStream salida = Files.newOutputStream(destino)) {
+            int leidos;
+            while ((leidos = entrada.read(buffer)) != -1) {
+                total += leidos;
+                if (total > maxBytesImagen) {
+                    throw new IllegalArgumentException("La imagen excede el tamaño máximo");
+                }
+                salida.write(buffer, 0, leidos);
+            }
+        }
+        return total;
+    }
+
+    private Entrada buscar(String clave) {
+        candadoIndice.lock();
+        try {
+            return indice.get(clave);
+        } finally {
+            candadoIndice.unlock();
+        }
+    }
+
+    private void quitar(Entrada entrada) {
+        boolean quitada;
+        candadoIndice.lock();
+        try {
+            Entrada actual = indice.get(entrada.clave());
+            quitada = actual != null && actual.descargadoEn() == entrada.descargadoEn();
+            if (quitada) {
+                indice.remove(entrada.clave());
+                totalBytes -= actual.tamano();
+            }
+        } finally {
+            candadoIndice.unlock();
+        }
+        if (quitada) {
+            borrar(List.of(archivo(entrada), metadatos(entrada.clave())));
+        }
+    }
+
+    /**
+     * Agrega o reemplaza la entrada y desaloja las menos usadas si se pasa
+     * del tamaño máximo. Los archivos se borran después de soltar el
+     * candado, para no hacer I/O mientras otras peticiones esperan el índice.
+     */
+    private void registrar(Entrada entrada) {
+        List<Path> aBorrar = new ArrayList<>();
+        candadoIndice.lock();
+        try {
+            Entrada anterior = indice.put(entrada.clave(), entrada);
+            if (anterior != null) {
+                totalBytes -= anterior.tamano();
+                if (anterior.descargadoEn() != entrada.descargadoEn()) {
+                    // Versión anterior de la misma imagen (la metadata se reescribió)
+                    aBorrar.add(archivo(anterior));
+                }
+            }
+            totalBytes += entrada.tamano();
+
+            long maxBytes = cacheMaxMb * 1024 * 1024;
+            Iterator<Entrada> iterador = indice.values().iterator();
+            while (totalBytes > maxBytes && iterador.hasNext()) {
+                Entrada eldest = iterador.next();
+                if (eldest.clave().equals(entrada.clave())) {
+                    continue;
+                }
+                iterador.remove();
+                totalBytes -= eldest.tamano();
+                aBorrar.add(archivo(eldest));
+                aBorrar.add(metadatos(eldest.clave()));
+            }
+        } finally {
+            candadoIndice.unlock();
+        }
+        borrar(aBorrar);
+    }
+
+    private void cargarIndice() throws IOException {
+        List<Path> metadatos;
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            metadatos = archivos.filter(p -> p.getFileName().toString().endsWith(".meta"))
+                    .sorted(Comparator.comparing(ImagenProxyService::ultimoAcceso))
+                    .toList();
+        }
+        for (Path meta : metadatos) {
+            Entrada entrada = leerMetadatos(meta);
+            if (entrada == null) {
+                Files.deleteIfExists(meta);
+                continue;
+            }
+            // Caches creadas antes de nombrar los archivos por versión
+            Path sinVersion = directorio.resolve(entrada.clave() + ".img");
+            if (!Files.exists(archivo(entrada)) && Files.exists(sinVersion)) {
+                Files.move(sinVersion, archivo(entrada), StandardCopyOption.ATOMIC_MOVE);
+            }
+            if (Files.exists(archivo(entrada))) {
+                registrar(entrada);
+            } else {
+                Files.deleteIfExists(meta);
+            }
+        }
+    }
+
+    private void guardarMetadatos(Entrada entrada) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("contentType", entrada.contentType());
+        if (entrada.etagOrigen() != null) {
+            props.setProperty("etag", entrada.etagOrigen());
+        }
+        if (entrada.lastModifiedOrigen() != null) {
+            props.setProperty("lastModified", entrada.lastModifiedOrigen());
+        }
+        props.setProperty("descargadoEn", String.valueOf(entrada.descargadoEn()));
+        props.setProperty("validadoEn", String.valueOf(entrada.validadoEn()));
+        props.setProperty("tamano", String.valueOf(entrada.tamano()));
+        try (Writer writer = Files.newBufferedWriter(metadatos(entrada.clave()))) {
+            props.store(writer, null);
+        }
+    }
+
+    private Entrada leerMetadatos(Path meta) {
+        String nombre = meta.getFileName().toString();
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(meta)) {
+            props.load(reader);
+            return new Entrada(nombre.substring(0, nombre.length() - ".meta".length()),
+                    props.getProperty("contentType"),
+                    props.getProperty("etag"),
+                    props.getProperty("lastModified"),
+                    Long.parseLong(props.getProperty("descargadoEn")),
+                    Long.parseLong(props.getProperty("validadoEn")),
+                    Long.parseLong(props.getProperty("tamano")));
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static FileTime ultimoAcceso(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void borrar(List<Path> archivos) {
+        for (Path archivo : archivos) {
+            try {
+                Files.deleteIfExists(archivo);
+            } catch (IOException e) {
+                // Se reintenta en el próximo desalojo o al reiniciar
+            }
+        }
+    }
+
+    /**
+     * Cada versión descargada tiene su propio archivo, así reemplazarla no
+     * cambia el contenido de un stream ya abierto.
+     */
+    private Path archivo(Entrada entrada) {
+        return directorio.resolve(entrada.clave() + "-" + Long.toHexString(entrada.descargadoEn()) + ".img");
+    }
+
+    private Path metadatos(String clave) {
+        return directorio.resolve(clave + ".meta");
+    }
+
+    public Map<String, Object> obtenerEstadisticas() {
+        candadoIndice.lock();
+        try {
+            return Map.of("entradas", indice.size(), "bytes", totalBytes, "maxBytes", cacheMaxMb * 1024 * 1024);
+        } finally {
+            candadoIndice.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        vigilante.shutdownNow();
+    }
+
+    public record Entrada(String clave, String contentType, String etagOrigen, String lastModifiedOrigen,
+                          long descargadoEn, long validadoEn, long tamano) {
+        Entrada revalidada(long ahora) {
+            return new Entrada(clave, contentType, etagOrigen, lastModifiedOrigen, descargadoEn, ahora, tamano);
+        }
+
+        /** ETag propio: cambia solo cuando se descarga una versión nueva. */
+        public String etag() {
+            return "\"" + clave.substring(0, 16) + "-" + Long.toHexString(descargadoEn) + "\"";
+        }
+    }
+
+    public record ImagenCacheada(InputStream contenido, Entrada entrada) {
+    }
+}
@@ -0,0 +1,209 @@
+package com.sanisidro.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Genera versiones reducidas (thumb, card, banner) de las imágenes subidas
+ * para no servir el original completo en cada banner o tarjeta.
+ *
+ * Se procesan en segundo plano en un pool acotado; si la cola se llena la
+ * imagen queda sin variantes y se sirve el original. Las imágenes que
+ * ImageIO no decodifica (webp, avif) o que superan imagenes.variantes.max-pixeles
+ * tampoco tienen variantes, por eso solo se anuncian las que ya existen en disco.
+ */
+@Service
+public class ImagenVariantesService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImagenVariantesService.class);
+
+    // Ancho máximo de cada variante; nunca se amplía una imagen más chica
+    private static final Map<String, Integer> VARIANTES = new LinkedHashMap<>();
+
+    static {
+        VARIANTES.put("thumb", 200);
+        VARIANTES.put("card", 600);
+        VARIANTES.put("banner", 1600);
+    }
+
+    @Value("${imagenes.variantes.calidad-jpeg:0.8}")
+    private float calidadJpeg;
+
+    @Value("${imagenes.variantes.hilos:2}")
+    private int hilos;
+
+    @Value("${imagenes.variantes.cola:50}")
+    private int tamanoCola;
+
+    // Una imagen de 40 MP ocupa unos 160 MB ya decodificada
+    @Value("${imagenes.variantes.max-pixeles:40000000}")
+    private long maxPixeles;
+
+    private ThreadPoolExecutor pool;
+
+    @PostConstruct
+    public void inicializar() {
+        AtomicInteger contador = new AtomicInteger();
+        pool = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(tamanoCola),
+                r -> {
+                    Thread hilo = new Thread(r, "imagen-variantes-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Nombre de archivo de una variante: uuid.png -> uuid-card.jpg
+     */
+    public static String nombreVariante(String nombreOriginal, String variante) {
+        int punto = nombreOriginal.lastIndexOf('.');
+        String base = punto > 0 ? nombreOriginal.substring(0, punto) : nombreOriginal;
+        return base + "-" + variante + ".jpg";
+    }
+
+    /**
+     * true si ImageIO puede decodificar el tipo (jpeg, png, gif; no webp ni avif).
+     */
+    public static boolean admiteVariantes(String contentType) {
+        return ImageIO.getImageReadersByMIMEType(contentType).hasNext();
+    }
+
+    public void generarAsync(Path original) {
+        try {
+            pool.execute(() -> generar(original));
+        } catch (RejectedExecutionException e) {
+            log.warn("imagen.variantes_descartadas archivo={} motivo=cola_llena", original);
+        }
+    }
+
+    /**
+     * Variantes ya generadas del original (nombre de variante -> nombre de archivo).
+     */
+    public Map<String, String> variantesExistentes(Path original) {
+        Map<String, String> existentes = new LinkedHashMap<>();
+        for (String variante : VARIANTES.keySet()) {
+            String nombre = nombreVariante(original.getFileName().toString(), variante);
+            if (Files.isRegularFile(original.resolveSibling(nombre))) {
+                existentes.put(variante, nombre);
+            }
+        }
+        return existentes;
+    }
+
+    private void generar(Path original) {
+        try {
+            BufferedImage imagen = leer(original);
+            if (imagen == null) {
+                return;
+            }
+            for (Map.Entry<String, Integer> variante : VARIANTES.entrySet()) {
+                Path destino = original.resolveSibling(
+                        nombreVariante(original.getFileName().toString(), variante.getKey()));
+                escribirJpeg(redimensionar(imagen, variante.getValue()), destino);
+            }
+        } catch (IOException e) {
+            log.warn("imagen.variantes_error archivo={} error={}", original, e.getMessage());
+        }
+    }
+
+    /**
+     * Lee la imagen solo si sus dimensiones, tomadas de la cabecera, no
+     * superan el máximo de píxeles: así un archivo pequeño que declara
+     * 50000x50000 no agota la memoria al decodificarse.
+     */
+    private BufferedImage leer(Path original) throws IOException {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> lectores = entrada == null ? null : ImageIO.getImageReaders(entrada);
+            if (lectores == null || !lectores.hasNext()) {
+                // Formato que ImageIO no lee (webp, avif): se sirve solo el original
+                return null;
+            }
+            ImageReader lector = lectores.next();
+            try {
+                lector.setInput(entrada, true, true);
+                long pixeles = (long) lector.getWidth(0) * lector.getHeight(0);
+                if (pixeles > maxPixeles) {
+                    log.warn("imagen.variantes_descartadas archivo={} motivo=dimensiones pixeles={}", original, pixeles);
+                    return null;
+                }
+                return lector.read(0);
+            } finally {
+                lector.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage redimensionar(BufferedImage imagen, int anchoMaximo) {
+        int ancho = Math.min(anchoMaximo, imagen.getWidth());
+        int alto = Math.max(1, Math.round(imagen.getHeight() * (ancho / (float) imagen.getWidth())));
+        BufferedImage destino = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = destino.createGraphics();
+        try {
+            // Fondo blanco para las imágenes con transparencia (JPEG no la soporta)
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, ancho, alto);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(imagen, 0, 0, ancho, alto, null);
+        } finally {
+            g.dispose();
+        }
+        return destino;
+    }
+
+    private void escribirJpeg(BufferedImage imagen, Path destino) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(calidadJpeg);
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+
+        // Se escribe a un temporal para no servir nunca una variante a medias
+        Path temporal = Files.createTempFile(destino.getParent(), "variante", ".tmp");
+        try {
+            try (ImageOutputStream salida = ImageIO.createImageOutputStream(temporal.toFile())) {
+                writer.setOutput(salida);
+                writer.write(null, new IIOImage(imagen, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        pool.shutdown();
+    }
+}
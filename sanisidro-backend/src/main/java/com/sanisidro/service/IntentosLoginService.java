@@ -0,0 +1,75 @@
+package com.sanisidro.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lleva en memoria los intentos fallidos de login por email. Después de
+ * varios fallos seguidos el email queda bloqueado unos minutos; un login
+ * correcto reinicia el conteo.
+ */
+@Service
+public class IntentosLoginService {
+
+    @Value("${seguridad.login.max-fallos:5}")
+    private int maxFallos;
+
+    @Value("${seguridad.login.bloqueo-minutos:15}")
+    private long bloqueoMinutos;
+
+    @Value("${seguridad.login.max-emails:100000}")
+    private long maxEmails;
+
+    private Cache<String, Intentos> intentos;
+
+    @PostConstruct
+    public void inicializar() {
+        // Una entrada sin fallos nuevos expira sola tras el tiempo de bloqueo
+        intentos = CacheBuilder.newBuilder()
+                .maximumSize(maxEmails)
+                .expireAfterWrite(bloqueoMinutos, TimeUnit.MINUTES)
+                .build();
+    }
+
+    public boolean estaBloqueado(String email) {
+        Intentos registro = intentos.getIfPresent(clave(email));
+        return registro != null && registro.bloqueadoHasta > System.currentTimeMillis();
+    }
+
+    public void registrarFallo(String email) {
+        String clave = clave(email);
+        try {
+            Intentos registro = intentos.get(clave, Intentos::new);
+            synchronized (registro) {
+                registro.fallos++;
+                if (registro.fallos >= maxFallos) {
+                    registro.bloqueadoHasta = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(bloqueoMinutos);
+                    registro.fallos = 0;
+                }
+            }
+            // Se vuelve a escribir para renovar la expiración
+            intentos.put(clave, registro);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public void registrarExito(String email) {
+        intentos.invalidate(clave(email));
+    }
+
+    private static String clave(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class Intentos {
+        int fallos;
+        volatile long bloqueadoHasta;
+    }
+}
@@ -0,0 +1,96 @@
+package com.sanisidro.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sanisidro.model.ItemPedido;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lee el JSON del carrito guardado en Pedido.detalles directamente a
+ * ItemPedido con el parser de streaming de Jackson, sin crear un ObjectMapper
+ * por pedido ni un árbol JsonNode intermedio.
+ *
+ * El JsonFactory es thread-safe, así que una sola instancia se comparte entre
+ * todas las peticiones.
+ */
+@Component
+public class ItemPedidoDecoder {
+
+    private final JsonFactory jsonFactory;
+
+    @Autowired
+    public ItemPedidoDecoder(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Devuelve los items del arreglo JSON. Si detalles no es un arreglo
+     * devuelve una lista vacía; si el JSON está mal formado lanza IOException.
+     */
+    public List<ItemPedido> decodificar(String detalles) throws IOException {
+        List<ItemPedido> items = new ArrayList<>();
+        if (detalles == null || detalles.isEmpty()) {
+            return items;
+        }
+        try (JsonParser parser = jsonFactory.createParser(detalles)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return items;
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                if (token == JsonToken.START_OBJECT) {
+                    items.add(leerItem(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return items;
+    }
+
+    private ItemPedido leerItem(JsonParser parser) throws IOException {
+        ItemPedido item = new ItemPedido();
+        item.setCantidad(0);
+        item.setPrecio(0.0);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String campo = parser.currentName();
+            JsonToken valor = parser.nextToken();
+            if (valor == JsonToken.START_OBJECT || valor == JsonToken.START_ARRAY) {
+                // Un objeto o arreglo donde se espera un valor simple: se salta completo
+                // para no leer sus campos como si fueran del item; el campo queda en null/0
+                parser.skipChildren();
+                continue;
+            }
+            switch (campo) {
+                case "id" -> item.setProductoId(leerLong(parser, valor));
+                case "nombre" -> item.setNombre(valor == JsonToken.VALUE_NULL ? null : parser.getValueAsString());
+                case "cantidad" -> item.setCantidad(parser.getValueAsInt(0));
+                case "precio" -> item.setPrecio(parser.getValueAsDouble(0.0));
+                // Campos extra del carrito (imagen, comentarios, etc.)
+                default -> parser.skipChildren();
+            }
+        }
+        return item;
+    }
+
+    private Long leerLong(JsonParser parser, JsonToken valor) throws IOException {
+        if (valor == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        if (valor == JsonToken.VALUE_STRING) {
+            try {
+                return Long.parseLong(parser.getText().trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        parser.skipChildren();
+        return null;
+    }
+}
@@ -0,0 +1,113 @@
+package com.sanisidro.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.sanisidro.model.Producto;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Guarda el menú ya serializado a JSON (y comprimido con gzip) junto con su
+ * ETag, para que ProductoController no vuelva a serializar el catálogo en cada
+ * petición. Las representaciones se reconstruyen solo cuando cambia la
+ * versión del catálogo en ProductoService.
+ */
+@Service
+public class MenuSerializadoService {
+
+    private static final String CLAVE_TODOS = "*";
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${catalogo.cache.tamano-maximo:500}")
+    private long tamanoMaximo;
+
+    // Acotado: la clave es la categoría que envía el cliente, exista o no
+    private Cache<String, Representacion> representaciones;
+
+    @PostConstruct
+    public void inicializar() {
+        representaciones = CacheBuilder.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .build();
+    }
+
+    public Representacion obtenerTodos() {
+        return obtener(CLAVE_TODOS, null);
+    }
+
+    public Representacion obtenerPorCategoria(String categoria) {
+        String clave = categoria == null ? "" : categoria.toLowerCase(Locale.ROOT);
+        return obtener(clave, categoria);
+    }
+
+    private Representacion obtener(String clave, String categoria) {
+        long version = productoService.getVersionCatalogo();
+        Representacion actual = representaciones.getIfPresent(clave);
+        if (actual != null && actual.version() == version) {
+            return actual;
+        }
+        // La versión se lee antes de cargar los datos: si hay una escritura en
+        // medio, la siguiente petición vuelve a construir la representación
+        List<Producto> productos = categoria == null
+                ? productoService.obtenerTodos()
+                : productoService.obtenerPorCategoria(categoria);
+        Representacion nueva = construir(productos, version);
+        // Si otra petición guardó una versión más nueva mientras tanto, se conserva
+        representaciones.asMap().merge(clave, nueva, (anterior, reciente) ->
+                anterior.version() >= reciente.version() ? anterior : reciente);
+        return nueva;
+    }
+
+    private Representacion construir(List<Producto> productos, long version) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(productos);
+            return new Representacion(json, gzip(json), calcularEtag(json), version);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el menú", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] datos) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(datos.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(datos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    private static String calcularEtag(byte[] datos) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(datos);
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Menú serializado. etag es el hash del JSON sin comprimir; el controller
+     * le agrega un sufijo para la variante gzip.
+     */
+    public record Representacion(byte[] json, byte[] gzip, String etag, long version) {
+    }
+}
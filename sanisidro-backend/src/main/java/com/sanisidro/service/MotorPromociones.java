@@ -0,0 +1,168 @@
+package com.sanisidro.service;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.sanisidro.dto.ResultadoPromocionDTO;
+import com.sanisidro.model.ItemPedido;
+import com.sanisidro.model.Promocion;
+import com.sanisidro.repository.PromocionRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Índice en memoria de las promociones activas para validar códigos en el
+ * checkout sin consultar la base de datos.
+ *
+ * El índice es inmutable y se reemplaza completo en cada recarga: al escribir
+ * una promoción (PromocionService) y cada medianoche, cuando cambian las
+ * promociones vigentes.
+ */
+@Service
+public class MotorPromociones {
+
+    @Autowired
+    private PromocionRepository promocionRepository;
+
+    private final AtomicReference<ImmutableMap<String, PromocionIndexada>> indice =
+            new AtomicReference<>(ImmutableMap.of());
+
+    @PostConstruct
+    @Scheduled(cron = "0 0 0 * * *")
+    public void recargar() {
+        LocalDate hoy = LocalDate.now();
+        ImmutableMap.Builder<String, PromocionIndexada> builder = ImmutableMap.builder();
+        for (Promocion promocion : promocionRepository.findAll()) {
+            boolean activa = Boolean.TRUE.equals(promocion.getActiva());
+            boolean vencida = promocion.getFechaFin() != null && promocion.getFechaFin().isBefore(hoy);
+            if (activa && !vencida && promocion.getCodigo() != null) {
+                builder.put(normalizar(promocion.getCodigo()), indexar(promocion));
+            }
+        }
+        indice.set(builder.buildKeepingLast());
+    }
+
+    public static String normalizar(String codigo) {
+        return codigo == null ? "" : codigo.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Calcula el descuento que el código da sobre el carrito, con las mismas
+     * reglas que usa el carrito del frontend.
+     */
+    public ResultadoPromocionDTO evaluar(String codigo, List<ItemPedido> items) {
+        double subtotal = 0;
+        int cantidadTotal = 0;
+        for (ItemPedido item : items) {
+            subtotal += precio(item) * cantidad(item);
+            cantidadTotal += cantidad(item);
+        }
+        subtotal = redondear(subtotal);
+
+        if (codigo == null || codigo.isBlank()) {
+            // Sin código: solo se devuelven los totales
+            return ResultadoPromocionDTO.invalida(null, subtotal, null);
+        }
+        PromocionIndexada promo = indice.get().get(normalizar(codigo));
+        if (promo == null) {
+            return ResultadoPromocionDTO.invalida(codigo, subtotal, "Código no encontrado");
+        }
+
+        LocalDate hoy = LocalDate.now();
+        if (promo.fechaInicio() != null && promo.fechaInicio().isAfter(hoy)) {
+            return ResultadoPromocionDTO.invalida(promo.codigo(), subtotal, "Esta promoción aún no ha comenzado");
+        }
+        if (promo.fechaFin() != null && promo.fechaFin().isBefore(hoy)) {
+            return ResultadoPromocionDTO.invalida(promo.codigo(), subtotal, "Esta promoción ha expirado");
+        }
+        if (promo.montoMinimo() > 0 && subtotal < promo.montoMinimo()) {
+            return ResultadoPromocionDTO.invalida(promo.codigo(), subtotal,
+                    "Monto mínimo requerido: S/ " + promo.montoMinimo());
+        }
+        if (promo.cantidadMinima() > 0 && cantidadTotal < promo.cantidadMinima()) {
+            return ResultadoPromocionDTO.invalida(promo.codigo(), subtotal,
+                    "Cantidad mínima requerida: " + promo.cantidadMinima() + " productos");
+        }
+
+        double descuento;
+        switch (promo.tipoPromocion()) {
+            case "general", "porcentaje" -> descuento = subtotal * promo.descuento() / 100;
+            case "monto_fijo" -> descuento = Math.min(promo.descuento(), subtotal);
+            case "producto" -> {
+                double subtotalAplicable = 0;
+                boolean aplica = false;
+                for (ItemPedido item : items) {
+                    if (item.getProductoId() != null && promo.productos().contains(item.getProductoId())) {
+                        subtotalAplicable += precio(item) * cantidad(item);
+                        aplica = true;
+                    }
+                }
+                if (!aplica) {
+                    return ResultadoPromocionDTO.invalida(promo.codigo(), subtotal,
+                            "Esta promoción no aplica a los productos en tu carrito");
+                }
+                descuento = subtotalAplicable * promo.descuento() / 100;
+            }
+            default -> {
+                // Un tipo que este motor no conoce no se aplica como válido con descuento 0
+                return ResultadoPromocionDTO.invalida(promo.codigo(), subtotal, "Tipo de promoción no soportado");
+            }
+        }
+
+        descuento = redondear(descuento);
+        ResultadoPromocionDTO resultado = new ResultadoPromocionDTO();
+        resultado.setValida(true);
+        resultado.setMensaje("Código " + promo.codigo() + " aplicado");
+        resultado.setCodigo(promo.codigo());
+        resultado.setTipoPromocion(promo.tipoPromocion());
+        resultado.setSubtotal(subtotal);
+        resultado.setDescuento(descuento);
+        resultado.setTotal(redondear(subtotal - descuento));
+        return resultado;
+    }
+
+    private static PromocionIndexada indexar(Promocion promocion) {
+        ImmutableSet.Builder<Long> productos = ImmutableSet.builder();
+        if (promocion.getProductosAplicables() != null) {
+            for (String id : promocion.getProductosAplicables().split(",")) {
+                try {
+                    productos.add(Long.parseLong(id.trim()));
+                } catch (NumberFormatException e) {
+                    // Se ignoran valores que no son ids
+                }
+            }
+        }
+        return new PromocionIndexada(
+                promocion.getCodigo(),
+                promocion.getTipoPromocion() != null ? promocion.getTipoPromocion() : "general",
+                promocion.getDescuento() != null ? promocion.getDescuento() : 0.0,
+                promocion.getMontoMinimo() != null ? promocion.getMontoMinimo() : 0.0,
+                promocion.getCantidadMinima() != null ? promocion.getCantidadMinima() : 0,
+                promocion.getFechaInicio(),
+                promocion.getFechaFin(),
+                productos.build());
+    }
+
+    private static double precio(ItemPedido item) {
+        return item.getPrecio() != null ? item.getPrecio() : 0.0;
+    }
+
+    private static int cantidad(ItemPedido item) {
+        return item.getCantidad() != null ? item.getCantidad() : 0;
+    }
+
+    private static double redondear(double valor) {
+        return Math.round(valor * 100) / 100.0;
+    }
+
+    private record PromocionIndexada(String codigo, String tipoPromocion, double descuento,
+                                     double montoMinimo, int cantidadMinima,
+                                     LocalDate fechaInicio, LocalDate fechaFin,
+                                     ImmutableSet<Long> productos) {
+    }
+}
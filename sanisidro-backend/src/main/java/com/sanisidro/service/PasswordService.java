@@ -0,0 +1,181 @@
+package com.sanisidro.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Hash de contraseñas con BCrypt.
+ *
+ * - El costo se configura con seguridad.password.costo; con 0 se calibra al
+ *   arrancar hasta que un hash tarde al menos seguridad.password.objetivo-ms.
+ * - El cálculo corre en un pool acotado: en una ráfaga de logins las
+ *   peticiones que no entran en la cola fallan rápido (503) en lugar de
+ *   ocupar todos los hilos del servidor con CPU.
+ * - Las contraseñas antiguas en texto plano se siguen aceptando para que el
+ *   login las pueda reemplazar por su hash.
+ */
+@Service
+public class PasswordService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordService.class);
+
+    private static final Pattern HASH_BCRYPT = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+    private static final int COSTO_MINIMO = 10;
+    private static final int COSTO_MAXIMO = 16;
+
+    @Value("${seguridad.password.costo:0}")
+    private int costoConfigurado;
+
+    @Value("${seguridad.password.objetivo-ms:100}")
+    private long objetivoMs;
+
+    @Value("${seguridad.password.hilos:0}")
+    private int hilos;
+
+    @Value("${seguridad.password.cola:100}")
+    private int tamanoCola;
+
+    @Value("${seguridad.password.timeout-ms:5000}")
+    private long timeoutMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BCryptPasswordEncoder encoder;
+    private ThreadPoolExecutor pool;
+    private Timer verificaciones;
+
+    // Hash de referencia para que un email inexistente tarde lo mismo que uno válido
+    private String hashFicticio;
+
+    @PostConstruct
+    public void inicializar() {
+        int costo = costoConfigurado > 0 ? costoConfigurado : calibrarCosto();
+        encoder = new BCryptPasswordEncoder(costo);
+        hashFicticio = encoder.encode("sanisidro");
+        log.info("password.costo costo={} calibrado={}", costo, costoConfigurado <= 0);
+
+        int tamanoPool = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        AtomicInteger contador = new AtomicInteger();
+        pool = new ThreadPoolExecutor(tamanoPool, tamanoPool, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(tamanoCola),
+                r -> {
+                    Thread hilo = new Thread(r, "password-hash-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        verificaciones = Timer.builder("password.verificacion")
+                .description("Tiempo de verificación de contraseñas, incluida la espera en el pool")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sube el costo desde el mínimo hasta que un hash tarde al menos el
+     * objetivo en este servidor, para que el tiempo de login sea predecible.
+     */
+    private int calibrarCosto() {
+        int costo = COSTO_MINIMO;
+        while (costo < COSTO_MAXIMO) {
+            BCryptPasswordEncoder prueba = new BCryptPasswordEncoder(costo);
+            prueba.encode("calibracion"); // calentamiento del JIT
+            long inicio = System.nanoTime();
+            prueba.encode("calibracion");
+            if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) >= objetivoMs) {
+                break;
+            }
+            costo++;
+        }
+        return costo;
+    }
+
+    public String hashear(String password) {
+        return ejecutar(() -> encoder.encode(password));
+    }
+
+    /**
+     * Compara la contraseña con lo guardado, sea un hash BCrypt o una
+     * contraseña antigua en texto plano. Con almacenado null compara contra
+     * un hash ficticio para no revelar si el email existe.
+     */
+    public boolean verificar(String password, String almacenado) {
+        if (password == null) {
+            return false;
+        }
+        long inicio = System.nanoTime();
+        try {
+            if (almacenado == null) {
+                ejecutar(() -> encoder.matches(password, hashFicticio));
+                return false;
+            }
+            if (!esHash(almacenado)) {
+                return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                        almacenado.getBytes(StandardCharsets.UTF_8));
+            }
+            return ejecutar(() -> encoder.matches(password, almacenado));
+        } finally {
+            verificaciones.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * true si lo guardado es texto plano o un hash con un costo menor al actual.
+     */
+    public boolean necesitaRehash(String almacenado) {
+        return !esHash(almacenado) || encoder.upgradeEncoding(almacenado);
+    }
+
+    public static boolean esHash(String valor) {
+        return valor != null && HASH_BCRYPT.matcher(valor).matches();
+    }
+
+    private <T> T ejecutar(Callable<T> tarea) {
+        Future<T> futuro;
+        try {
+            futuro = pool.submit(tarea);
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Demasiados inicios de sesión en curso, intente nuevamente");
+        }
+        try {
+            return futuro.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            throw new IllegalStateException("Tiempo de espera agotado al verificar la contraseña");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Verificación de contraseña interrumpida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        pool.shutdown();
+    }
+}
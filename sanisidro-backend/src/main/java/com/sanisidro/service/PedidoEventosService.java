@@ -0,0 +1,216 @@
+package com.sanisidro.service;
+
+import com.sanisidro.model.Pedido;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Publica los cambios de pedidos por Server-Sent Events (/api/pedidos/stream)
+ * para que cocina y administración no tengan que consultar la lista completa.
+ *
+ * Cada suscriptor tiene una cola acotada; si un cliente lento la llena se le
+ * desconecta y, al reconectarse con Last-Event-ID, recibe los eventos que se
+ * perdió desde el historial reciente.
+ */
+@Service
+public class PedidoEventosService {
+
+    private static final int TAMANO_COLA_SUSCRIPTOR = 64;
+    private static final int TAMANO_HISTORIAL = 256;
+    private static final long TIMEOUT_MS = 30 * 60 * 1000L;
+
+    private final Set<Suscriptor> suscriptores = ConcurrentHashMap.newKeySet();
+    private final Deque<EventoPedido> historial = new ArrayDeque<>(TAMANO_HISTORIAL);
+    // Protege historial y la secuencia, para que un suscriptor nuevo no pierda
+    // ni duplique eventos entre el replay y los eventos en vivo
+    private final ReentrantLock lock = new ReentrantLock();
+    private long secuencia = 0;
+
+    // Un hilo virtual por envío: un cliente lento bloquea solo su propio hilo
+    private final ExecutorService envios = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("pedidos-sse-", 0).factory());
+
+    public SseEmitter suscribir(Long ultimoEventoId) {
+        SseEmitter emitter = new SseEmitter(TIMEOUT_MS);
+        Suscriptor suscriptor = new Suscriptor(emitter);
+        emitter.onCompletion(() -> suscriptores.remove(suscriptor));
+        emitter.onTimeout(() -> suscriptores.remove(suscriptor));
+        emitter.onError(e -> suscriptores.remove(suscriptor));
+
+        lock.lock();
+        try {
+            if (ultimoEventoId != null) {
+                List<EventoPedido> perdidos = new ArrayList<>();
+                for (EventoPedido evento : historial) {
+                    if (evento.id() > ultimoEventoId) {
+                        perdidos.add(evento);
+                    }
+                }
+                EventoPedido primero = historial.peekFirst();
+                // Un id mayor a la secuencia actual viene de antes de reiniciar el backend
+                boolean cubierto = ultimoEventoId <= secuencia
+                        && (primero == null || ultimoEventoId >= primero.id() - 1);
+                if (!cubierto || perdidos.size() > TAMANO_COLA_SUSCRIPTOR / 2) {
+                    // Faltan demasiados eventos: el cliente debe recargar la lista
+                    suscriptor.encolar(new EventoPedido(secuencia, "reset", null, null, null, null, null));
+                } else {
+                    perdidos.forEach(suscriptor::encolar);
+                }
+            }
+            suscriptores.add(suscriptor);
+        } finally {
+            lock.unlock();
+        }
+        programarEnvio(suscriptor);
+        return emitter;
+    }
+
+    public void pedidoCreado(Pedido pedido) {
+        publicarTrasCommit("creado", pedido);
+    }
+
+    public void pedidoActualizado(Pedido pedido) {
+        publicarTrasCommit("actualizado", pedido);
+    }
+
+    public void pedidoEliminado(Pedido pedido) {
+        publicarTrasCommit("eliminado", pedido);
+    }
+
+    /**
+     * Si hay una transacción activa el evento se publica solo después del
+     * commit, para no anunciar cambios que terminen en rollback.
+     */
+    private void publicarTrasCommit(String tipo, Pedido pedido) {
+        Long pedidoId = pedido.getId();
+        String estado = pedido.getEstado();
+        Double total = pedido.getTotal();
+        String cliente = pedido.getCliente();
+        LocalTime hora = pedido.getHora();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publicar(tipo, pedidoId, estado, total, cliente, hora);
+                }
+            });
+        } else {
+            publicar(tipo, pedidoId, estado, total, cliente, hora);
+        }
+    }
+
+    private void publicar(String tipo, Long pedidoId, String estado, Double total, String cliente, LocalTime hora) {
+        lock.lock();
+        try {
+            EventoPedido evento = new EventoPedido(++secuencia, tipo, pedidoId, estado, total, cliente, hora);
+            if (historial.size() == TAMANO_HISTORIAL) {
+                historial.pollFirst();
+            }
+            historial.addLast(evento);
+            for (Suscriptor suscriptor : suscriptores) {
+                if (!suscriptor.encolar(evento)) {
+                    descartar(suscriptor);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        suscriptores.forEach(this::programarEnvio);
+    }
+
+    @Scheduled(fixedRate = 25000)
+    public void enviarLatidos() {
+        for (Suscriptor suscriptor : suscriptores) {
+            if (!suscriptor.encolar(EventoPedido.LATIDO)) {
+                descartar(suscriptor);
+            } else {
+                programarEnvio(suscriptor);
+            }
+        }
+    }
+
+    public int getSuscriptoresActivos() {
+        return suscriptores.size();
+    }
+
+    private void descartar(Suscriptor suscriptor) {
+        // Cliente lento: se corta la conexión y se reconecta con Last-Event-ID
+        suscriptores.remove(suscriptor);
+        suscriptor.cola.clear();
+        suscriptor.emitter.complete();
+    }
+
+    private void programarEnvio(Suscriptor suscriptor) {
+        if (!suscriptor.cola.isEmpty() && suscriptor.enviando.compareAndSet(false, true)) {
+            envios.execute(() -> enviarPendientes(suscriptor));
+        }
+    }
+
+    private void enviarPendientes(Suscriptor suscriptor) {
+        try {
+            EventoPedido evento;
+            while ((evento = suscriptor.cola.poll()) != null) {
+                if (evento == EventoPedido.LATIDO) {
+                    suscriptor.emitter.send(SseEmitter.event().comment("ping"));
+                } else {
+                    suscriptor.emitter.send(SseEmitter.event()
+                            .id(String.valueOf(evento.id()))
+                            .name(evento.tipo())
+                            .data(evento, MediaType.APPLICATION_JSON));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            suscriptores.remove(suscriptor);
+            suscriptor.emitter.completeWithError(e);
+            return;
+        } finally {
+            suscriptor.enviando.set(false);
+        }
+        // Pudo llegar un evento entre el último poll y liberar el flag
+        programarEnvio(suscriptor);
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        suscriptores.forEach(suscriptor -> suscriptor.emitter.complete());
+        envios.shutdownNow();
+    }
+
+    public record EventoPedido(long id, String tipo, Long pedidoId, String estado,
+                               Double total, String cliente, LocalTime hora) {
+        static final EventoPedido LATIDO = new EventoPedido(0, "ping", null, null, null, null, null);
+    }
+
+    private static final class Suscriptor {
+        private final SseEmitter emitter;
+        private final BlockingQueue<EventoPedido> cola = new ArrayBlockingQueue<>(TAMANO_COLA_SUSCRIPTOR);
+        private final AtomicBoolean enviando = new AtomicBoolean();
+
+        private Suscriptor(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private boolean encolar(EventoPedido evento) {
+            return cola.offer(evento);
+        }
+    }
+}
@@ -1,89 +1,263 @@
 package com.sanisidro.service;
 
+import com.sanisidro.dto.PaginaDTO;
+import com.sanisidro.dto.PedidoCocinaDTO;
+import com.sanisidro.dto.ResultadoPromocionDTO;
+import com.sanisidro.model.ItemPedido;
 import com.sanisidro.model.Pedido;
+import com.sanisidro.model.Producto;
+import com.sanisidro.repository.ItemPedidoRepository;
 import com.sanisidro.repository.PedidoRepository;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ArrayList;
 
 @Service
 public class PedidoService {
 
+    private static final Logger log = LoggerFactory.getLogger(PedidoService.class);
+
     @Autowired
     private PedidoRepository pedidoRepository;
 
+    @Autowired
+    private ItemPedidoRepository itemPedidoRepository;
+
+    @Autowired
+    private EstadisticasService estadisticasService;
+
+    @Autowired
+    private ItemPedidoDecoder itemPedidoDecoder;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private MotorPromociones motorPromociones;
+
+    @Autowired
+    private PedidoEventosService pedidoEventosService;
+
+    @Autowired
+    private VentasDiariasService ventasDiariasService;
+
+    private static final int TAMANO_LOTE_MIGRACION = 100;
+
+    private static final String ESTADO_INICIAL = "pendiente";
+
+    @Value("${pedidos.zona-horaria:America/Lima}")
+    private ZoneId zonaHoraria;
+
+    @Transactional(readOnly = true)
     public List<Pedido> obtenerTodos() {
-        List<Pedido> pedidos = pedidoRepository.findAll(Sort.by(Sort.Direction.DESC, "id"));
-        pedidos.forEach(this::parsearItems);
-        return pedidos;
+        return pedidoRepository.findAllConItems();
     }
 
+    @Transactional(readOnly = true)
+    public PaginaDTO<Pedido> obtenerPagina(Long after, Integer limit) {
+        int limite = PaginaDTO.normalizarLimite(limit);
+        List<Pedido> filas = after == null
+                ? pedidoRepository.findAllByOrderByIdDesc(Limit.of(limite + 1))
+                : pedidoRepository.findByIdLessThanOrderByIdDesc(after, Limit.of(limite + 1));
+        PaginaDTO<Pedido> pagina = PaginaDTO.de(filas, limite, Pedido::getId);
+        cargarItems(pagina.getItems());
+        return pagina;
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Pedido> obtenerPorId(Long id) {
         Optional<Pedido> pedido = pedidoRepository.findById(id);
-        pedido.ifPresent(this::parsearItems);
+        pedido.ifPresent(p -> Hibernate.initialize(p.getItems()));
         return pedido;
     }
 
+    @Transactional(readOnly = true)
     public List<Pedido> obtenerPorEmail(String email) {
-        List<Pedido> pedidos = pedidoRepository.findByEmail(email);
-        pedidos.forEach(this::parsearItems);
-        return pedidos;
+        return pedidoRepository.findByEmail(email);
     }
 
-    private void parsearItems(Pedido pedido) {
-        if (pedido.getDetalles() != null && !pedido.getDetalles().isEmpty()) {
-            try {
-                // El campo detalles contiene un JSON con los items del carrito
-                com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-                com.fasterxml.jackson.databind.JsonNode jsonNode = mapper.readTree(pedido.getDetalles());
-
-                List<Pedido.ItemPedido> items = new ArrayList<>();
-
-                if (jsonNode.isArray()) {
-                    for (com.fasterxml.jackson.databind.JsonNode node : jsonNode) {
-                        Pedido.ItemPedido item = new Pedido.ItemPedido();
-                        item.setNombre(node.get("nombre").asText());
-                        item.setCantidad(node.get("cantidad").asInt());
-                        item.setPrecio(node.get("precio").asDouble());
-                        items.add(item);
-                    }
-                }
+    @Transactional(readOnly = true)
+    public List<Pedido> obtenerPorEstado(String estado) {
+        return pedidoRepository.findByEstado(estado);
+    }
 
-                pedido.setItems(items);
-            } catch (Exception e) {
-                System.err.println("Error parseando items del pedido " + pedido.getId() + ": " + e.getMessage());
-                pedido.setItems(new ArrayList<>());
+    /**
+     * Pedidos de la cola de cocina con una sola consulta (pedidos + items),
+     * agrupando las filas por pedido sin hidratar entidades.
+     */
+    @Transactional(readOnly = true)
+    public List<PedidoCocinaDTO> obtenerColaCocina(Collection<String> estados) {
+        Map<Long, PedidoCocinaDTO> pedidos = new LinkedHashMap<>();
+        for (PedidoRepository.FilaCocina fila : pedidoRepository.findColaCocina(estados)) {
+            PedidoCocinaDTO pedido = pedidos.computeIfAbsent(fila.getId(), id ->
+                    new PedidoCocinaDTO(id, fila.getCliente(), fila.getHora(), fila.getEstado(), new ArrayList<>()));
+            if (fila.getItemNombre() != null) {
+                pedido.items().add(new PedidoCocinaDTO.Item(fila.getItemNombre(), fila.getItemCantidad()));
             }
         }
+        return new ArrayList<>(pedidos.values());
     }
 
-    public List<Pedido> obtenerPorEstado(String estado) {
-        return pedidoRepository.findByEstado(estado);
+    /**
+     * Inicializa los items de cada pedido. Gracias al @BatchSize de
+     * Pedido.items, Hibernate los trae en lotes de 100 pedidos por consulta.
+     */
+    private void cargarItems(List<Pedido> pedidos) {
+        pedidos.forEach(pedido -> Hibernate.initialize(pedido.getItems()));
+    }
+
+    /**
+     * Convierte el JSON del carrito guardado en detalles a items.
+     * Solo se usa para migrar pedidos antiguos.
+     */
+    private List<ItemPedido> parsearDetalles(Pedido pedido) {
+        try {
+            return itemPedidoDecoder.decodificar(pedido.getDetalles());
+        } catch (Exception e) {
+            log.warn("pedido.detalles_invalidos id={} error={}", pedido.getId(), e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Migración única de los pedidos que solo tienen el JSON en detalles
+     * hacia la tabla pedido_items. Es idempotente: los pedidos que ya tienen
+     * items o que quedaron marcados (incluso sin items: carrito vacío o
+     * texto libre) no se vuelven a procesar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrarDetallesAItems() {
+        List<Long> pendientes = pedidoRepository.findIdsSinItems();
+        for (int i = 0; i < pendientes.size(); i += TAMANO_LOTE_MIGRACION) {
+            List<Long> lote = pendientes.subList(i, Math.min(i + TAMANO_LOTE_MIGRACION, pendientes.size()));
+            List<ItemPedido> items = new ArrayList<>();
+            for (Pedido pedido : pedidoRepository.findAllById(lote)) {
+                for (ItemPedido item : parsearDetalles(pedido)) {
+                    item.setPedido(pedido);
+                    items.add(item);
+                }
+            }
+            itemPedidoRepository.saveAll(items);
+            pedidoRepository.marcarDetallesMigrados(lote);
+        }
     }
 
+    /**
+     * Calcula subtotal, descuento y total del carrito con los precios del
+     * catálogo (en cache) y las reglas de la promoción, sin confiar en los
+     * montos que envía el cliente.
+     *
+     * @throws IllegalArgumentException si el carrito está vacío, algún item no
+     *         tiene producto o cantidad válida, o el producto no está disponible
+     */
+    public ResultadoPromocionDTO cotizar(List<ItemPedido> items, String codigoPromo) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("El pedido no tiene items");
+        }
+        for (ItemPedido item : items) {
+            // El nombre y precio enviados por el cliente nunca se usan
+            if (item.getProductoId() == null) {
+                throw new IllegalArgumentException("Item sin producto: " + item.getNombre());
+            }
+            if (item.getCantidad() == null || item.getCantidad() <= 0) {
+                throw new IllegalArgumentException("Cantidad inválida para el producto " + item.getProductoId());
+            }
+            Producto producto = productoService.obtenerPorId(item.getProductoId());
+            if (producto == null || Boolean.FALSE.equals(producto.getDisponible())) {
+                throw new IllegalArgumentException("Producto no disponible: " + item.getProductoId());
+            }
+            item.setNombre(producto.getNombre());
+            item.setPrecio(producto.getPrecio());
+        }
+
+        return motorPromociones.evaluar(codigoPromo, items);
+    }
+
+    /**
+     * Crea siempre un pedido nuevo. El id, estado, fecha, hora y número de
+     * factura los asigna el servidor: POST /api/pedidos es público y un id
+     * enviado por el cliente convertiría el alta en la sobrescritura de otro
+     * pedido.
+     */
+    @Transactional
     public Pedido crear(Pedido pedido) {
-        return pedidoRepository.save(pedido);
+        // Los items se validan en cotizar; detalles solo se parsea para pedidos antiguos
+        if (pedido.getItems() == null || pedido.getItems().isEmpty()) {
+            throw new IllegalArgumentException("El pedido no tiene items");
+        }
+        pedido.setId(null);
+        pedido.setEstado(ESTADO_INICIAL);
+        pedido.setFecha(LocalDate.now(zonaHoraria));
+        pedido.setHora(LocalTime.now(zonaHoraria).truncatedTo(ChronoUnit.SECONDS));
+        pedido.setNumeroFactura(null);
+        pedido.setDetallesMigrados(false);
+        pedido.getItems().forEach(item -> {
+            item.setId(null);
+            item.setPedido(pedido);
+        });
+
+        ResultadoPromocionDTO totales = cotizar(pedido.getItems(), pedido.getCodigoPromo());
+        pedido.setSubtotal(totales.getSubtotal());
+        pedido.setDescuento(totales.getDescuento());
+        pedido.setCodigoPromo(totales.isValida() ? totales.getCodigo() : null);
+        pedido.setTotal(totales.getTotal());
+
+        Pedido guardado = pedidoRepository.save(pedido);
+        // Con el id ya asignado el número es único; el prefijo lo separa de los
+        // números yyyyMMdd-HHmmss que generaba el carrito
+        guardado.setNumeroFactura(String.format("B%s-%06d",
+                guardado.getFecha().format(DateTimeFormatter.BASIC_ISO_DATE), guardado.getId()));
+        estadisticasService.pedidoCreado(guardado);
+        ventasDiariasService.pedidoCreado(guardado);
+        pedidoEventosService.pedidoCreado(guardado);
+        return guardado;
     }
 
+    @Transactional
     public Pedido actualizarEstado(Long id, String estado) {
-        System.out.println("Servicio: Buscando pedido con ID: " + id);
         Optional<Pedido> pedidoOpt = pedidoRepository.findById(id);
         if (pedidoOpt.isPresent()) {
             Pedido pedido = pedidoOpt.get();
-            System.out.println("Servicio: Estado anterior: " + pedido.getEstado());
+            String estadoAnterior = pedido.getEstado();
             pedido.setEstado(estado);
             Pedido pedidoGuardado = pedidoRepository.save(pedido);
-            System.out.println("Servicio: Estado guardado en BD: " + pedidoGuardado.getEstado());
+            estadisticasService.pedidoEstadoCambiado(pedidoGuardado, estadoAnterior);
+            ventasDiariasService.pedidoEstadoCambiado(pedidoGuardado, estadoAnterior);
+            pedidoEventosService.pedidoActualizado(pedidoGuardado);
+            Hibernate.initialize(pedidoGuardado.getItems());
+            log.info("pedido.estado_actualizado id={} anterior={} nuevo={}", id, estadoAnterior, estado);
             return pedidoGuardado;
         }
-        System.out.println("Servicio: Pedido no encontrado");
+        log.warn("pedido.no_encontrado id={} estado={}", id, estado);
         return null;
     }
 
+    @Transactional
     public void eliminar(Long id) {
-        pedidoRepository.deleteById(id);
+        pedidoRepository.findById(id).ifPresent(pedido -> {
+            // Antes de borrar, mientras los items todavía se pueden cargar
+            ventasDiariasService.pedidoEliminado(pedido);
+            pedidoRepository.delete(pedido);
+            estadisticasService.pedidoEliminado(pedido);
+            pedidoEventosService.pedidoEliminado(pedido);
+        });
     }
 }
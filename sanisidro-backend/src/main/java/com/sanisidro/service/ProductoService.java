@@ -1,10 +1,27 @@
 package com.sanisidro.service;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.sanisidro.dto.PaginaDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import com.sanisidro.model.Producto;
 import com.sanisidro.repository.ProductoRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 @Service
 public class ProductoService {
@@ -12,31 +29,159 @@ public class ProductoService {
     @Autowired
     private ProductoRepository productoRepository;
     
+    @Autowired
+    private EstadisticasService estadisticasService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${catalogo.cache.ttl-minutos:30}")
+    private long ttlMinutos;
+    
+    @Value("${catalogo.cache.tamano-maximo:500}")
+    private long tamanoMaximo;
+    
+    private static final String CLAVE_TODOS = "todos";
+    
+    // Caches del catálogo: el menú cambia pocas veces al día y se lee en cada visita
+    private LoadingCache<String, Versionado<List<Producto>>> cacheTodos;
+    private LoadingCache<String, Versionado<List<Producto>>> cachePorCategoria;
+    private LoadingCache<Long, Versionado<Optional<Producto>>> cachePorId;
+    
+    // Cambia con cada escritura; permite a otros componentes saber si el catálogo cambió
+    private final AtomicLong versionCatalogo = new AtomicLong();
+    
+    @PostConstruct
+    public void inicializarCache() {
+        cacheTodos = nuevoCache(clave -> ImmutableList.copyOf(productoRepository.findAll()));
+        cachePorCategoria = nuevoCache(categoria -> ImmutableList.copyOf(productoRepository.findByCategoria(categoria)));
+        cachePorId = nuevoCache(id -> productoRepository.findById(id));
+        
+        // Tasa de aciertos en /actuator/prometheus (cache_gets_total{cache=...})
+        GuavaCacheMetrics.monitor(meterRegistry, cacheTodos, "catalogo.todos");
+        GuavaCacheMetrics.monitor(meterRegistry, cachePorCategoria, "catalogo.categoria");
+        GuavaCacheMetrics.monitor(meterRegistry, cachePorId, "catalogo.id");
+    }
+    
+    /**
+     * Cada entrada guarda la versión del catálogo leída antes de consultar la
+     * base, así una carga que estaba en curso durante una escritura queda
+     * marcada con la versión anterior y se recarga en la siguiente lectura.
+     */
+    private <K, V> LoadingCache<K, Versionado<V>> nuevoCache(Function<K, V> carga) {
+        return CacheBuilder.newBuilder()
+                .expireAfterWrite(ttlMinutos, TimeUnit.MINUTES)
+                .maximumSize(tamanoMaximo)
+                .recordStats()
+                .build(CacheLoader.from((K clave) -> {
+                    long version = versionCatalogo.get();
+                    return new Versionado<>(carga.apply(clave), version);
+                }));
+    }
+    
+    private <K, V> V leer(LoadingCache<K, Versionado<V>> cache, K clave) {
+        Versionado<V> entrada = cache.getUnchecked(clave);
+        if (entrada.version() != versionCatalogo.get()) {
+            // Se quita solo si nadie la reemplazó ya por una carga más nueva
+            cache.asMap().remove(clave, entrada);
+            entrada = cache.getUnchecked(clave);
+        }
+        return entrada.valor();
+    }
+    
+    /**
+     * La clave es la categoría tal como llega: la consulta la compara con la
+     * collation de la columna, así que una clave en minúsculas devolvería
+     * otra cosa que la categoría pedida en una base sensible a mayúsculas.
+     */
+    private static String claveCategoria(String categoria) {
+        return categoria == null ? "" : categoria;
+    }
+    
+    public long getVersionCatalogo() {
+        return versionCatalogo.get();
+    }
+    
+    private void invalidar(Producto producto) {
+        // Primero los caches y al final la versión: quien lea la versión nueva
+        // ya no puede encontrar en cache el catálogo anterior
+        cacheTodos.invalidateAll();
+        if (producto != null) {
+            // Todas las variantes de mayúsculas que pudieron leer esta categoría
+            String categoria = claveCategoria(producto.getCategoria());
+            cachePorCategoria.asMap().keySet().removeIf(clave -> clave.equalsIgnoreCase(categoria));
+            cachePorId.invalidate(producto.getId());
+        }
+        versionCatalogo.incrementAndGet();
+    }
+    
+    public Map<String, Object> obtenerEstadisticasCache() {
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("todos", resumen(cacheTodos.stats(), cacheTodos.size()));
+        resultado.put("porCategoria", resumen(cachePorCategoria.stats(), cachePorCategoria.size()));
+        resultado.put("porId", resumen(cachePorId.stats(), cachePorId.size()));
+        return resultado;
+    }
+    
+    private static Map<String, Object> resumen(CacheStats stats, long tamano) {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("entradas", tamano);
+        resumen.put("aciertos", stats.hitCount());
+        resumen.put("fallos", stats.missCount());
+        resumen.put("tasaAciertos", stats.hitRate());
+        resumen.put("desalojos", stats.evictionCount());
+        return resumen;
+    }
+    
     public List<Producto> obtenerTodos() {
-        return productoRepository.findAll();
+        return leer(cacheTodos, CLAVE_TODOS);
+    }
+    
+    public PaginaDTO<Producto> obtenerPagina(Long after, Integer limit) {
+        int limite = PaginaDTO.normalizarLimite(limit);
+        List<Producto> filas = after == null
+                ? productoRepository.findAllByOrderByIdDesc(Limit.of(limite + 1))
+                : productoRepository.findByIdLessThanOrderByIdDesc(after, Limit.of(limite + 1));
+        return PaginaDTO.de(filas, limite, Producto::getId);
     }
     
     public Producto obtenerPorId(Long id) {
-        return productoRepository.findById(id).orElse(null);
+        return leer(cachePorId, id).orElse(null);
     }
     
     public List<Producto> obtenerPorCategoria(String categoria) {
-        return productoRepository.findByCategoria(categoria);
+        return leer(cachePorCategoria, claveCategoria(categoria));
     }
     
     public Producto crear(Producto producto) {
-        return productoRepository.save(producto);
+        Producto guardado = productoRepository.save(producto);
+        invalidar(guardado);
+        estadisticasService.productoCreado(guardado);
+        return guardado;
     }
     
     public Producto actualizar(Long id, Producto producto) {
-        if (productoRepository.existsById(id)) {
+        Optional<Producto> anterior = productoRepository.findById(id);
+        if (anterior.isPresent()) {
+            Boolean disponibleAnterior = anterior.get().getDisponible();
             producto.setId(id);
-            return productoRepository.save(producto);
+            Producto guardado = productoRepository.save(producto);
+            invalidar(anterior.get());
+            invalidar(guardado);
+            estadisticasService.productoActualizado(disponibleAnterior, guardado);
+            return guardado;
         }
         return null;
     }
     
     public void eliminar(Long id) {
-        productoRepository.deleteById(id);
+        productoRepository.findById(id).ifPresent(producto -> {
+            productoRepository.delete(producto);
+            invalidar(producto);
+            estadisticasService.productoEliminado(producto);
+        });
+    }
+    
+    private record Versionado<V>(V valor, long version) {
     }
 }
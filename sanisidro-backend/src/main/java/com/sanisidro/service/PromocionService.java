@@ -1,5 +1,7 @@
 package com.sanisidro.service;
 
+import com.sanisidro.dto.CarritoDTO;
+import com.sanisidro.dto.ResultadoPromocionDTO;
 import com.sanisidro.model.Promocion;
 import com.sanisidro.repository.PromocionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +14,12 @@ public class PromocionService {
     @Autowired
     private PromocionRepository promocionRepository;
     
+    @Autowired
+    private MotorPromociones motorPromociones;
+    
+    @Autowired
+    private PedidoService pedidoService;
+    
     public List<Promocion> obtenerTodas() {
         return promocionRepository.findAll();
     }
@@ -24,19 +32,34 @@ public class PromocionService {
         return promocionRepository.findByCodigo(codigo).orElse(null);
     }
     
+    /**
+     * Evalúa el código con los precios del catálogo, igual que al crear el
+     * pedido; el precio enviado por el cliente no se usa.
+     *
+     * @throws IllegalArgumentException si el carrito no tiene items válidos
+     */
+    public ResultadoPromocionDTO evaluar(CarritoDTO carrito) {
+        return pedidoService.cotizar(carrito.getItems(), carrito.getCodigoPromo());
+    }
+    
     public Promocion crear(Promocion promocion) {
-        return promocionRepository.save(promocion);
+        Promocion guardada = promocionRepository.save(promocion);
+        motorPromociones.recargar();
+        return guardada;
     }
     
     public Promocion actualizar(Long id, Promocion promocion) {
         if (promocionRepository.existsById(id)) {
             promocion.setId(id);
-            return promocionRepository.save(promocion);
+            Promocion guardada = promocionRepository.save(promocion);
+            motorPromociones.recargar();
+            return guardada;
         }
         return null;
     }
     
     public void eliminar(Long id) {
         promocionRepository.deleteById(id);
+        motorPromociones.recargar();
     }
 }
@@ -1,31 +1,252 @@
 package com.sanisidro.service;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.sanisidro.dto.ReniecResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Cliente de la API de RENIEC (consulta de DNI, servicio de pago).
+ *
+ * - Cache LRU con TTL de las respuestas, incluidos los DNI no encontrados.
+ * - Consultas simultáneas del mismo DNI comparten una sola llamada.
+ * - Timeouts de conexión/lectura y un límite de llamadas concurrentes.
+ * - Circuit breaker: tras varios fallos seguidos deja de llamar un tiempo.
+ *   Pasado ese tiempo deja pasar una sola llamada de prueba; si falla, el
+ *   circuito vuelve a abrirse y si responde, se cierra. Solo cuentan como
+ *   fallos los 5xx, timeouts y errores de red: un 4xx (token inválido,
+ *   límite de consultas) es una respuesta del servicio y no lo abre.
+ */
 @Service
 public class ReniecService {
 
-    private String apiUrl = "https://api.decolecta.com/v1/reniec/dni";
-    private String apiToken = "sk_11994.hNBdNsnjy0VbwiqITQbm306tESuZi5mP";
+    private static final long PRUEBA_EN_CURSO = Long.MAX_VALUE;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Value("${reniec.api-url:https://api.decolecta.com/v1/reniec/dni}")
+    private String apiUrl;
 
+    @Value("${reniec.api-token:sk_11994.hNBdNsnjy0VbwiqITQbm306tESuZi5mP}")
+    private String apiToken;
+
+    @Value("${reniec.timeout-conexion-ms:2000}")
+    private int timeoutConexionMs;
+
+    @Value("${reniec.timeout-lectura-ms:5000}")
+    private int timeoutLecturaMs;
+
+    @Value("${reniec.cache.tamano-maximo:10000}")
+    private long tamanoMaximoCache;
+
+    @Value("${reniec.cache.ttl-horas:24}")
+    private long ttlHoras;
+
+    @Value("${reniec.cache.ttl-no-encontrado-minutos:30}")
+    private long ttlNoEncontradoMinutos;
+
+    @Value("${reniec.max-concurrentes:10}")
+    private int maxConcurrentes;
+
+    @Value("${reniec.circuito.fallos-para-abrir:5}")
+    private int fallosParaAbrir;
+
+    @Value("${reniec.circuito.segundos-abierto:30}")
+    private long segundosAbierto;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private RestTemplate restTemplate;
+    private Cache<String, ReniecResponse> encontrados;
+    private Cache<String, Boolean> noEncontrados;
+    private Semaphore permisos;
+
+    // Timers registrados una sola vez: medir una llamada no crea objetos
+    private Timer llamadasEncontrado;
+    private Timer llamadasNoEncontrado;
+    private Timer llamadasError;
+    private Counter rechazadasCircuito;
+    private Counter rechazadasLimite;
+
+    private final Map<String, CompletableFuture<Optional<ReniecResponse>>> enCurso = new ConcurrentHashMap<>();
+    private final AtomicInteger fallosSeguidos = new AtomicInteger();
+    // 0: circuito cerrado; PRUEBA_EN_CURSO: una llamada de prueba está en vuelo
+    private final AtomicLong abiertoHasta = new AtomicLong();
+
+    @PostConstruct
+    public void inicializar() {
+        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        factory.setConnectTimeout(timeoutConexionMs);
+        factory.setReadTimeout(timeoutLecturaMs);
+        restTemplate = new RestTemplate(factory);
+
+        encontrados = CacheBuilder.newBuilder()
+                .maximumSize(tamanoMaximoCache)
+                .expireAfterWrite(ttlHoras, TimeUnit.HOURS)
+                .recordStats()
+                .build();
+        noEncontrados = CacheBuilder.newBuilder()
+                .maximumSize(tamanoMaximoCache)
+                .expireAfterWrite(ttlNoEncontradoMinutos, TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+        permisos = new Semaphore(maxConcurrentes);
+
+        GuavaCacheMetrics.monitor(meterRegistry, encontrados, "reniec.encontrados");
+        GuavaCacheMetrics.monitor(meterRegistry, noEncontrados, "reniec.no_encontrados");
+        llamadasEncontrado = timerLlamadas("encontrado");
+        llamadasNoEncontrado = timerLlamadas("no_encontrado");
+        llamadasError = timerLlamadas("error");
+        rechazadasCircuito = Counter.builder("reniec.rechazadas").tag("motivo", "circuito_abierto").register(meterRegistry);
+        rechazadasLimite = Counter.builder("reniec.rechazadas").tag("motivo", "limite_concurrencia").register(meterRegistry);
+    }
+
+    private Timer timerLlamadas(String resultado) {
+        return Timer.builder("reniec.llamadas")
+                .description("Llamadas HTTP a la API de RENIEC")
+                .tag("resultado", resultado)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return los datos del DNI, o null si RENIEC no lo encuentra
+     * @throws IllegalArgumentException si el DNI no tiene 8 dígitos
+     * @throws IllegalStateException si el servicio no está disponible
+     */
     public ReniecResponse consultarPorDni(String dni) {
-        String url = apiUrl + "?numero=" + dni;
+        if (!StringUtils.isNumeric(dni) || dni.length() != 8) {
+            throw new IllegalArgumentException("El DNI debe tener 8 dígitos");
+        }
+        ReniecResponse enCache = encontrados.getIfPresent(dni);
+        if (enCache != null) {
+            return enCache;
+        }
+        if (noEncontrados.getIfPresent(dni) != null) {
+            return null;
+        }
+
+        // Solo el primer hilo llama a la API; los demás esperan el mismo resultado
+        CompletableFuture<Optional<ReniecResponse>> nueva = new CompletableFuture<>();
+        CompletableFuture<Optional<ReniecResponse>> existente = enCurso.putIfAbsent(dni, nueva);
+        if (existente != null) {
+            return esperar(existente);
+        }
+        try {
+            Optional<ReniecResponse> resultado = consultarApi(dni);
+            if (resultado.isPresent()) {
+                encontrados.put(dni, resultado.get());
+            } else {
+                noEncontrados.put(dni, Boolean.TRUE);
+            }
+            nueva.complete(resultado);
+            return resultado.orElse(null);
+        } catch (RuntimeException e) {
+            nueva.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(dni, nueva);
+        }
+    }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(apiToken); // Authorization: Bearer <token>
-        headers.setContentType(MediaType.APPLICATION_JSON);
+    private ReniecResponse esperar(CompletableFuture<Optional<ReniecResponse>> futuro) {
+        try {
+            return futuro.join().orElse(null);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private Optional<ReniecResponse> consultarApi(String dni) {
+        long hasta = abiertoHasta.get();
+        // Con el circuito abierto y el tiempo cumplido, solo el hilo que gana el CAS hace la prueba
+        boolean prueba = hasta != 0;
+        if (prueba && (System.currentTimeMillis() < hasta || !abiertoHasta.compareAndSet(hasta, PRUEBA_EN_CURSO))) {
+            rechazadasCircuito.increment();
+            throw new IllegalStateException("Servicio RENIEC no disponible temporalmente");
+        }
+        if (!permisos.tryAcquire()) {
+            if (prueba) {
+                // La prueba no llegó a hacerse: otro hilo puede intentarla
+                abiertoHasta.set(hasta);
+            }
+            rechazadasLimite.increment();
+            throw new IllegalStateException("Demasiadas consultas RENIEC en curso");
+        }
+        long inicio = System.nanoTime();
+        boolean fallo = false;
+        try {
+            String url = apiUrl + "?numero=" + dni;
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setBearerAuth(apiToken); // Authorization: Bearer <token>
+            headers.setContentType(MediaType.APPLICATION_JSON);
+
+            HttpEntity<String> entity = new HttpEntity<>(headers);
 
-        HttpEntity<String> entity = new HttpEntity<>(headers);
+            ResponseEntity<ReniecResponse> response = restTemplate.exchange(
+                    url, HttpMethod.GET, entity, ReniecResponse.class);
 
-        // Realiza la petición GET
-        ResponseEntity<ReniecResponse> response = restTemplate.exchange(
-                url, HttpMethod.GET, entity, ReniecResponse.class);
+            llamadasEncontrado.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return Optional.ofNullable(response.getBody());
+        } catch (HttpClientErrorException.NotFound e) {
+            // Respuesta válida de la API: el DNI no existe
+            llamadasNoEncontrado.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return Optional.empty();
+        } catch (RuntimeException e) {
+            // ResourceAccessException: timeout, conexión rechazada u otro error de I/O
+            fallo = e instanceof HttpServerErrorException || e instanceof ResourceAccessException;
+            llamadasError.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            throw e;
+        } finally {
+            permisos.release();
+            if (!fallo) {
+                fallosSeguidos.set(0);
+                if (prueba) {
+                    abiertoHasta.set(0);
+                }
+            } else if (prueba) {
+                abrirCircuito();
+            } else {
+                registrarFallo();
+            }
+        }
+    }
+
+    private void registrarFallo() {
+        if (fallosSeguidos.incrementAndGet() >= fallosParaAbrir) {
+            abrirCircuito();
+        }
+    }
 
-        return response.getBody();
+    private void abrirCircuito() {
+        // Después de este tiempo se permite una nueva llamada de prueba
+        abiertoHasta.set(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(segundosAbierto));
+        fallosSeguidos.set(0);
     }
-}
\ No newline at end of file
+}
@@ -1,23 +1,43 @@
 package com.sanisidro.service;
 
+import com.sanisidro.dto.PaginaDTO;
+import com.sanisidro.dto.TurnoDisponibilidadDTO;
 import com.sanisidro.model.Reserva;
 import com.sanisidro.repository.ReservaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class ReservaService {
 
+    private static final String ESTADO_INICIAL = "pendiente";
+
     @Autowired
     private ReservaRepository reservaRepository;
 
+    @Autowired
+    private EstadisticasService estadisticasService;
+
+    @Autowired
+    private DisponibilidadReservasService disponibilidadService;
+
     public List<Reserva> obtenerTodas() {
         return reservaRepository.findAll(Sort.by(Sort.Direction.DESC, "id"));
     }
 
+    public PaginaDTO<Reserva> obtenerPagina(Long after, Integer limit) {
+        int limite = PaginaDTO.normalizarLimite(limit);
+        List<Reserva> filas = after == null
+                ? reservaRepository.findAllByOrderByIdDesc(Limit.of(limite + 1))
+                : reservaRepository.findByIdLessThanOrderByIdDesc(after, Limit.of(limite + 1));
+        return PaginaDTO.de(filas, limite, Reserva::getId);
+    }
+
     public Reserva obtenerPorId(Long id) {
         return reservaRepository.findById(id).orElse(null);
     }
@@ -34,19 +54,66 @@ public class ReservaService {
         return reservaRepository.findByEstado(estado);
     }
 
+    public List<TurnoDisponibilidadDTO> consultarDisponibilidad(LocalDate fecha) {
+        return disponibilidadService.consultar(fecha);
+    }
+
+    /**
+     * POST /api/reservas es público: el id y el estado los asigna el servidor
+     * antes de ocupar cupos, para que el alta no sobrescriba otra reserva ni
+     * entre ya cancelada sin ocupar cupo.
+     *
+     * @throws IllegalArgumentException si la reserva no es válida (personas, horario)
+     * @throws IllegalStateException si el turno no tiene capacidad para la reserva
+     */
     public Reserva crear(Reserva reserva) {
-        return reservaRepository.save(reserva);
+        reserva.setId(null);
+        reserva.setEstado(ESTADO_INICIAL);
+        if (!disponibilidadService.reservar(reserva)) {
+            throw new IllegalStateException("No hay mesas disponibles para ese horario");
+        }
+        Reserva guardada;
+        try {
+            guardada = reservaRepository.save(reserva);
+        } catch (RuntimeException e) {
+            disponibilidadService.liberar(reserva);
+            throw e;
+        }
+        estadisticasService.reservaCreada(guardada);
+        return guardada;
     }
 
+    /**
+     * @throws IllegalArgumentException si la reserva no es válida (personas, horario)
+     * @throws IllegalStateException si el nuevo turno no tiene capacidad para la reserva
+     */
     public Reserva actualizar(Long id, Reserva reserva) {
-        if (reservaRepository.existsById(id)) {
+        Optional<Reserva> anterior = reservaRepository.findById(id);
+        if (anterior.isPresent()) {
+            LocalDate fechaAnterior = anterior.get().getFecha();
+            if (!disponibilidadService.cambiar(reserva, anterior.get())) {
+                throw new IllegalStateException("No hay mesas disponibles para ese horario");
+            }
             reserva.setId(id);
-            return reservaRepository.save(reserva);
+            Reserva guardada;
+            try {
+                guardada = reservaRepository.save(reserva);
+            } catch (RuntimeException e) {
+                disponibilidadService.liberar(reserva);
+                disponibilidadService.restaurar(anterior.get());
+                throw e;
+            }
+            estadisticasService.reservaActualizada(fechaAnterior, guardada);
+            return guardada;
         }
         return null;
     }
 
     public void eliminar(Long id) {
-        reservaRepository.deleteById(id);
+        reservaRepository.findById(id).ifPresent(reserva -> {
+            reservaRepository.delete(reserva);
+            disponibilidadService.liberar(reserva);
+            estadisticasService.reservaEliminada(reserva);
+        });
     }
 }
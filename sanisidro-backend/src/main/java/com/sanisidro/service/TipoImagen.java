@@ -0,0 +1,57 @@
+package com.sanisidro.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Detecta el tipo real de una imagen a partir de sus primeros bytes, sin
+ * confiar en la extensión ni en el Content-Type que envía el cliente.
+ */
+public final class TipoImagen {
+
+    private TipoImagen() {
+    }
+
+    /**
+     * @return el content type (image/jpeg, image/png, ...) o null si no es
+     *         un formato de imagen conocido
+     */
+    public static String detectar(Path archivo) throws IOException {
+        byte[] cabecera = new byte[12];
+        int leidos;
+        try (InputStream entrada = Files.newInputStream(archivo)) {
+            leidos = entrada.readNBytes(cabecera, 0, cabecera.length);
+        }
+        if (leidos >= 3 && (cabecera[0] & 0xFF) == 0xFF && (cabecera[1] & 0xFF) == 0xD8 && (cabecera[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (leidos >= 8 && (cabecera[0] & 0xFF) == 0x89 && cabecera[1] == 'P' && cabecera[2] == 'N' && cabecera[3] == 'G') {
+            return "image/png";
+        }
+        if (leidos >= 6 && cabecera[0] == 'G' && cabecera[1] == 'I' && cabecera[2] == 'F' && cabecera[3] == '8') {
+            return "image/gif";
+        }
+        if (leidos >= 12 && cabecera[0] == 'R' && cabecera[1] == 'I' && cabecera[2] == 'F' && cabecera[3] == 'F'
+                && cabecera[8] == 'W' && cabecera[9] == 'E' && cabecera[10] == 'B' && cabecera[11] == 'P') {
+            return "image/webp";
+        }
+        if (leidos >= 12 && cabecera[4] == 'f' && cabecera[5] == 't' && cabecera[6] == 'y' && cabecera[7] == 'p'
+                && cabecera[8] == 'a' && cabecera[9] == 'v' && cabecera[10] == 'i' && cabecera[11] == 'f') {
+            return "image/avif";
+        }
+        return null;
+    }
+
+    public static String extension(String contentType) {
+        return switch (contentType) {
+            case "image/jpeg" -> ".jpg";
+            case "image/png" -> ".png";
+            case "image/gif" -> ".gif";
+            case "image/webp" -> ".webp";
+            case "image/avif" -> ".avif";
+            default -> "";
+        };
+    }
+}
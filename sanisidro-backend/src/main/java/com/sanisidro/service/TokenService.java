@@ -0,0 +1,203 @@
+package com.sanisidro.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.sanisidro.model.Usuario;
+import jakarta.annotation.PostConstruct;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens de sesión firmados (JWT con HS256) con el id, email y esAdmin del
+ * usuario. Se verifican solo con la firma, sin consultar la base de datos.
+ *
+ * Los tokens revocados (logout) y los usuarios cuyos tokens anteriores dejan
+ * de valer (eliminados o con cambio de contraseña) se guardan en memoria
+ * hasta que esos tokens expirarían de todos modos. Ninguna de las dos
+ * colecciones descarta entradas por tamaño: un token revocado que se
+ * descartara volvería a ser válido.
+ */
+@Service
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_DECODER = Base64.getUrlDecoder();
+    private static final String ENCABEZADO = BASE64.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    @Value("${seguridad.token.secreto:}")
+    private String secreto;
+
+    @Value("${seguridad.token.duracion-horas:12}")
+    private long duracionHoras;
+
+    @Value("${seguridad.token.max-revocados:100000}")
+    private long maxRevocados;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private SecretKeySpec clave;
+    // Mac no es thread-safe: cada firma clona este prototipo ya inicializado con la clave
+    private Mac prototipo;
+    private Cache<String, Boolean> revocados;
+    private Cache<Long, Long> revocadosPorUsuario;
+
+    @PostConstruct
+    public void inicializar() {
+        byte[] bytesClave;
+        if (StringUtils.isBlank(secreto)) {
+            bytesClave = new byte[32];
+            new SecureRandom().nextBytes(bytesClave);
+            log.warn("token.secreto_aleatorio las sesiones no sobreviven un reinicio; configurar TOKEN_SECRETO");
+        } else {
+            bytesClave = secreto.getBytes(StandardCharsets.UTF_8);
+        }
+        clave = new SecretKeySpec(bytesClave, ALGORITMO);
+        prototipo = crearMac(); // falla al arrancar si la clave no es válida
+
+        revocados = CacheBuilder.newBuilder()
+                .expireAfterWrite(duracionHoras, TimeUnit.HOURS)
+                .build();
+        // Una entrada por usuario, que vence junto con el último token que invalida
+        revocadosPorUsuario = CacheBuilder.newBuilder()
+                .expireAfterWrite(duracionHoras, TimeUnit.HOURS)
+                .build();
+    }
+
+    private Mac crearMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(clave);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("No se pudo inicializar la firma de tokens", e);
+        }
+    }
+
+    public String emitir(Usuario usuario) {
+        long ahoraMs = System.currentTimeMillis();
+        long ahora = ahoraMs / 1000;
+        ObjectNode claims = objectMapper.createObjectNode();
+        claims.put("sub", String.valueOf(usuario.getId()));
+        claims.put("email", usuario.getEmail());
+        claims.put("adm", Boolean.TRUE.equals(usuario.getEsAdmin()));
+        claims.put("iat", ahora);
+        // iat va en segundos (estándar JWT); la revocación por usuario compara en milisegundos
+        // para no aceptar un token emitido en el mismo segundo, antes del cambio de contraseña
+        claims.put("iat_ms", ahoraMs);
+        claims.put("exp", ahora + TimeUnit.HOURS.toSeconds(duracionHoras));
+        claims.put("jti", UUID.randomUUID().toString());
+        try {
+            String contenido = ENCABEZADO + "." + BASE64.encodeToString(objectMapper.writeValueAsBytes(claims));
+            return contenido + "." + BASE64.encodeToString(firmar(contenido));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return el usuario del token, o null si el token no es válido, expiró o fue revocado
+     */
+    public UsuarioToken verificar(String token) {
+        if (token == null) {
+            return null;
+        }
+        int primerPunto = token.indexOf('.');
+        int segundoPunto = token.indexOf('.', primerPunto + 1);
+        if (primerPunto < 0 || segundoPunto < 0 || token.indexOf('.', segundoPunto + 1) >= 0
+                || !ENCABEZADO.equals(token.substring(0, primerPunto))) {
+            return null;
+        }
+        try {
+            String contenido = token.substring(0, segundoPunto);
+            byte[] firma = BASE64_DECODER.decode(token.substring(segundoPunto + 1));
+            if (!MessageDigest.isEqual(firma, firmar(contenido))) {
+                return null;
+            }
+            JsonNode claims = objectMapper.readTree(BASE64_DECODER.decode(token.substring(primerPunto + 1, segundoPunto)));
+            UsuarioToken usuario = new UsuarioToken(
+                    Long.valueOf(claims.path("sub").asText()),
+                    claims.path("email").asText(),
+                    claims.path("adm").asBoolean(),
+                    claims.path("jti").asText(),
+                    claims.path("iat_ms").asLong(),
+                    claims.path("exp").asLong());
+            return vigente(usuario) ? usuario : null;
+        } catch (IllegalArgumentException | IOException e) {
+            // Base64 o JSON mal formado
+            return null;
+        }
+    }
+
+    private boolean vigente(UsuarioToken usuario) {
+        if (usuario.expira() <= System.currentTimeMillis() / 1000) {
+            return false;
+        }
+        if (revocados.getIfPresent(usuario.jti()) != null) {
+            return false;
+        }
+        Long revocadoDesde = revocadosPorUsuario.getIfPresent(usuario.id());
+        return revocadoDesde == null || usuario.emitido() > revocadoDesde;
+    }
+
+    /**
+     * Revoca un token. Si ya hay max-revocados tokens revocados vigentes, en
+     * lugar de descartar uno se invalidan todos los tokens del usuario.
+     */
+    public void revocar(UsuarioToken usuario) {
+        if (revocados.size() >= maxRevocados) {
+            revocados.cleanUp();
+            if (revocados.size() >= maxRevocados) {
+                log.warn("token.revocados_llenos max={} usuario={}", maxRevocados, usuario.id());
+                revocarUsuario(usuario.id());
+                return;
+            }
+        }
+        revocados.put(usuario.jti(), Boolean.TRUE);
+    }
+
+    /**
+     * Invalida todos los tokens emitidos hasta ahora para el usuario.
+     */
+    public void revocarUsuario(Long id) {
+        revocadosPorUsuario.put(id, System.currentTimeMillis());
+    }
+
+    private byte[] firmar(String contenido) {
+        Mac mac;
+        try {
+            mac = (Mac) prototipo.clone();
+        } catch (CloneNotSupportedException e) {
+            // El proveedor por defecto de HmacSHA256 admite clone; otro podría no hacerlo
+            mac = crearMac();
+        }
+        return mac.doFinal(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Datos del usuario tomados del token (emitido en milisegundos, expira en segundos epoch).
+     */
+    public record UsuarioToken(Long id, String email, boolean esAdmin, String jti, long emitido, long expira) {
+    }
+}
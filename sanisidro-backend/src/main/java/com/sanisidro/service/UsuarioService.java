@@ -1,11 +1,17 @@
 package com.sanisidro.service;
 
+import com.sanisidro.dto.PaginaDTO;
 import com.sanisidro.model.Usuario;
 import com.sanisidro.repository.UsuarioRepository;
 import com.sanisidro.repository.PedidoRepository;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -17,19 +23,50 @@ public class UsuarioService {
     @Autowired
     private PedidoRepository pedidoRepository;
     
+    @Autowired
+    private EstadisticasService estadisticasService;
+    
+    @Autowired
+    private PasswordService passwordService;
+    
+    @Autowired
+    private IntentosLoginService intentosLoginService;
+    
+    @Autowired
+    private TokenService tokenService;
+    
     public List<Usuario> obtenerTodos() {
-        System.out.println("=== OBTENIENDO USUARIOS CON CONTEO DE PEDIDOS ===");
         List<Usuario> usuarios = usuarioRepository.findAll();
-        System.out.println("Total usuarios encontrados: " + usuarios.size());
-        
-        // Calcular el número de pedidos para cada usuario
+        // Un solo conteo agrupado por email en lugar de una consulta por usuario
+        asignarConteoPedidos(usuarios, pedidoRepository.contarPorEmail());
+        return usuarios;
+    }
+    
+    public PaginaDTO<Usuario> obtenerPagina(Long after, Integer limit) {
+        int limite = PaginaDTO.normalizarLimite(limit);
+        List<Usuario> filas = after == null
+                ? usuarioRepository.findAllByOrderByIdDesc(Limit.of(limite + 1))
+                : usuarioRepository.findByIdLessThanOrderByIdDesc(after, Limit.of(limite + 1));
+        PaginaDTO<Usuario> pagina = PaginaDTO.de(filas, limite, Usuario::getId);
+        List<String> emails = pagina.getItems().stream()
+                .map(Usuario::getEmail)
+                .filter(Objects::nonNull)
+                .toList();
+        if (!emails.isEmpty()) {
+            asignarConteoPedidos(pagina.getItems(), pedidoRepository.contarPorEmails(emails));
+        }
+        return pagina;
+    }
+    
+    private void asignarConteoPedidos(List<Usuario> usuarios, List<PedidoRepository.ConteoPorEmail> conteos) {
+        Map<String, Long> pedidosPorEmail = new HashMap<>();
+        for (PedidoRepository.ConteoPorEmail conteo : conteos) {
+            pedidosPorEmail.put(conteo.getEmail(), conteo.getTotal());
+        }
         usuarios.forEach(usuario -> {
-            int numeroPedidos = pedidoRepository.findByEmail(usuario.getEmail()).size();
-            System.out.println("Usuario: " + usuario.getEmail() + " - Pedidos: " + numeroPedidos);
-            usuario.setPedidos(numeroPedidos);
+            String email = usuario.getEmail() != null ? usuario.getEmail().toLowerCase() : null;
+            usuario.setPedidos(pedidosPorEmail.getOrDefault(email, 0L).intValue());
         });
-        System.out.println("=================================================");
-        return usuarios;
     }
     
     public Optional<Usuario> obtenerPorId(Long id) {
@@ -40,35 +77,85 @@ public class UsuarioService {
         return usuarioRepository.findByEmail(email);
     }
     
+    /**
+     * @throws IllegalArgumentException si la contraseña está vacía
+     * @throws IllegalStateException si el pool de hash está saturado
+     */
     public Usuario registrar(Usuario usuario) {
-        return usuarioRepository.save(usuario);
+        boolean nuevo = usuario.getId() == null;
+        if (StringUtils.isBlank(usuario.getPassword())) {
+            throw new IllegalArgumentException("La contraseña es obligatoria");
+        }
+        usuario.setPassword(passwordService.hashear(usuario.getPassword()));
+        Usuario guardado = usuarioRepository.save(usuario);
+        if (nuevo) {
+            estadisticasService.usuarioRegistrado();
+        }
+        return guardado;
     }
     
-    public Usuario actualizar(Long id, Usuario usuarioActualizado) {
+    /**
+     * Sin contraseña (null o "") se conserva la actual. El email y activo
+     * solo los cambia un administrador; el propio usuario solo su nombre,
+     * teléfono y contraseña.
+     *
+     * @throws IllegalArgumentException si la contraseña nueva es solo espacios
+     * @throws IllegalStateException si el pool de hash está saturado
+     */
+    public Usuario actualizar(Long id, Usuario usuarioActualizado, boolean comoAdmin) {
+        String password = usuarioActualizado.getPassword();
+        if (StringUtils.isNotEmpty(password) && StringUtils.isBlank(password)) {
+            throw new IllegalArgumentException("La contraseña no puede estar en blanco");
+        }
         Optional<Usuario> usuarioOpt = usuarioRepository.findById(id);
         if (usuarioOpt.isPresent()) {
             Usuario usuario = usuarioOpt.get();
             usuario.setNombre(usuarioActualizado.getNombre());
-            usuario.setEmail(usuarioActualizado.getEmail());
             usuario.setTelefono(usuarioActualizado.getTelefono());
-            if (usuarioActualizado.getPassword() != null && !usuarioActualizado.getPassword().isEmpty()) {
-                usuario.setPassword(usuarioActualizado.getPassword());
+            if (StringUtils.isNotEmpty(password)) {
+                usuario.setPassword(passwordService.hashear(password));
+                // Las sesiones abiertas con la contraseña anterior dejan de valer
+                tokenService.revocarUsuario(id);
+            }
+            if (comoAdmin) {
+                if (!Objects.equals(usuario.getEmail(), usuarioActualizado.getEmail())) {
+                    // Los tokens llevan el email anterior
+                    tokenService.revocarUsuario(id);
+                }
+                usuario.setEmail(usuarioActualizado.getEmail());
+                usuario.setActivo(usuarioActualizado.getActivo());
             }
-            usuario.setActivo(usuarioActualizado.getActivo());
             return usuarioRepository.save(usuario);
         }
         return null;
     }
     
     public void eliminar(Long id) {
-        usuarioRepository.deleteById(id);
+        usuarioRepository.findById(id).ifPresent(usuario -> {
+            usuarioRepository.delete(usuario);
+            tokenService.revocarUsuario(id);
+            estadisticasService.usuarioEliminado();
+        });
+    }
+    
+    public boolean loginBloqueado(String email) {
+        return intentosLoginService.estaBloqueado(email);
     }
     
     public Usuario login(String email, String password) {
-        Optional<Usuario> usuario = usuarioRepository.findByEmail(email);
-        if (usuario.isPresent() && usuario.get().getPassword().equals(password)) {
-            return usuario.get();
+        Optional<Usuario> usuarioOpt = usuarioRepository.findByEmail(email);
+        String almacenado = usuarioOpt.map(Usuario::getPassword).orElse(null);
+        if (!passwordService.verificar(password, almacenado)) {
+            intentosLoginService.registrarFallo(email);
+            return null;
         }
-        return null;
+        intentosLoginService.registrarExito(email);
+        Usuario usuario = usuarioOpt.get();
+        // Contraseñas antiguas en texto plano (o con un costo menor) se reemplazan por su hash
+        if (passwordService.necesitaRehash(almacenado)) {
+            usuario.setPassword(passwordService.hashear(password));
+            usuario = usuarioRepository.save(usuario);
+        }
+        return usuario;
     }
 }
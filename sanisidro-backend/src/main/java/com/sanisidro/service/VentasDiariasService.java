@@ -0,0 +1,197 @@
+package com.sanisidro.service;
+
+import com.sanisidro.dto.ReporteVentasDTO;
+import com.sanisidro.model.ItemPedido;
+import com.sanisidro.model.Pedido;
+import com.sanisidro.model.VentaDiaria;
+import com.sanisidro.repository.PedidoRepository;
+import com.sanisidro.repository.VentaDiariaProductoRepository;
+import com.sanisidro.repository.VentaDiariaPromocionRepository;
+import com.sanisidro.repository.VentaDiariaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDate;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Mantiene las tablas de resumen diario (ventas_diarias, por promoción y por
+ * producto) para que los reportes no recorran todo el historial de pedidos.
+ *
+ * Se actualizan en la misma transacción que crea, cambia de estado o elimina
+ * el pedido; los pedidos cancelados no cuentan. Cada noche se recalculan los
+ * últimos días desde pedidos por si algún cambio quedó fuera de los hooks.
+ *
+ * La reconstrucción y los hooks no se solapan: cada hook toma el candado de
+ * lectura hasta que su transacción termina y la reconstrucción el de
+ * escritura. Un hook que llega durante la reconstrucción espera y suma su
+ * cambio encima del resultado; uno ya confirmado queda incluido en el
+ * recálculo. La reconstrucción lee pedidos con READ COMMITTED, sin bloquear
+ * filas, para no esperar a un pedido cuyo hook está esperando el candado.
+ * El candado es local: supone una sola instancia del backend.
+ */
+@Service
+public class VentasDiariasService {
+
+    private static final String ESTADO_CANCELADO = "cancelado";
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private VentaDiariaRepository ventaDiariaRepository;
+
+    @Autowired
+    private VentaDiariaPromocionRepository ventaDiariaPromocionRepository;
+
+    @Autowired
+    private VentaDiariaProductoRepository ventaDiariaProductoRepository;
+
+    @Value("${reportes.ventas.dias-reconstruccion:7}")
+    private int diasReconstruccion;
+
+    private final ReentrantReadWriteLock candadoResumen = new ReentrantReadWriteLock();
+
+    @Transactional
+    public void pedidoCreado(Pedido pedido) {
+        if (!cancelado(pedido.getEstado())) {
+            acumular(pedido, 1);
+        }
+    }
+
+    @Transactional
+    public void pedidoEstadoCambiado(Pedido pedido, String estadoAnterior) {
+        boolean antes = cancelado(estadoAnterior);
+        boolean ahora = cancelado(pedido.getEstado());
+        if (antes && !ahora) {
+            acumular(pedido, 1);
+        } else if (!antes && ahora) {
+            acumular(pedido, -1);
+        }
+    }
+
+    @Transactional
+    public void pedidoEliminado(Pedido pedido) {
+        if (!cancelado(pedido.getEstado())) {
+            acumular(pedido, -1);
+        }
+    }
+
+    private void acumular(Pedido pedido, int signo) {
+        LocalDate fecha = pedido.getFecha();
+        if (fecha == null) {
+            return;
+        }
+        bloquearHastaTerminar(candadoResumen.readLock());
+        double descuento = valor(pedido.getDescuento());
+        ventaDiariaRepository.acumular(fecha, signo, signo * valor(pedido.getSubtotal()),
+                signo * descuento, signo * valor(pedido.getTotal()));
+
+        if (pedido.getCodigoPromo() != null) {
+            ventaDiariaPromocionRepository.acumular(fecha, pedido.getCodigoPromo(), signo, signo * descuento);
+        }
+        for (ItemPedido item : pedido.getItems()) {
+            if (item.getNombre() == null) {
+                continue;
+            }
+            int cantidad = item.getCantidad() != null ? item.getCantidad() : 0;
+            ventaDiariaProductoRepository.acumular(fecha, item.getNombre(), item.getProductoId(),
+                    (long) signo * cantidad, signo * cantidad * valor(item.getPrecio()));
+        }
+    }
+
+    /**
+     * Recalcula el resumen del rango a partir de pedidos y pedido_items.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public void reconstruir(LocalDate desde, LocalDate hasta) {
+        bloquearHastaTerminar(candadoResumen.writeLock());
+        ventaDiariaRepository.eliminarRango(desde, hasta);
+        ventaDiariaPromocionRepository.eliminarRango(desde, hasta);
+        ventaDiariaProductoRepository.eliminarRango(desde, hasta);
+        ventaDiariaRepository.reconstruirRango(desde, hasta);
+        ventaDiariaPromocionRepository.reconstruirRango(desde, hasta);
+        ventaDiariaProductoRepository.reconstruirRango(desde, hasta);
+    }
+
+    /**
+     * Se recalculan los días anteriores a hoy: el día en curso lo siguen
+     * actualizando los hooks y no conviene competir con ellos.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    @Scheduled(cron = "${reportes.ventas.cron-reconstruccion:0 30 3 * * *}")
+    public void reconstruirUltimosDias() {
+        LocalDate ayer = LocalDate.now().minusDays(1);
+        reconstruir(ayer.minusDays(diasReconstruccion - 1L), ayer);
+    }
+
+    /**
+     * La primera vez (tablas vacías) se genera el resumen de todo el historial.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicializar() {
+        if (ventaDiariaRepository.count() > 0) {
+            return;
+        }
+        LocalDate primeraFecha = pedidoRepository.primeraFecha();
+        if (primeraFecha != null) {
+            reconstruir(primeraFecha, LocalDate.now());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public ReporteVentasDTO obtenerReporte(LocalDate desde, LocalDate hasta) {
+        ReporteVentasDTO reporte = new ReporteVentasDTO();
+        reporte.setDesde(desde);
+        reporte.setHasta(hasta);
+        reporte.setDias(ventaDiariaRepository.findByFechaBetweenOrderByFecha(desde, hasta));
+        reporte.setPromociones(ventaDiariaPromocionRepository.findByFechaBetweenOrderByFechaAscCodigoPromoAsc(desde, hasta));
+        reporte.setProductos(ventaDiariaProductoRepository.findByFechaBetweenOrderByFechaAscCantidadDesc(desde, hasta));
+        for (VentaDiaria dia : reporte.getDias()) {
+            reporte.setPedidos(reporte.getPedidos() + dia.getPedidos());
+            reporte.setTotalBruto(reporte.getTotalBruto() + dia.getTotalBruto());
+            reporte.setDescuentos(reporte.getDescuentos() + dia.getDescuentos());
+            reporte.setTotalNeto(reporte.getTotalNeto() + dia.getTotalNeto());
+        }
+        return reporte;
+    }
+
+    /**
+     * Toma el candado y lo libera cuando termina la transacción actual (una
+     * sola vez por transacción aunque se llame varias veces).
+     */
+    private static void bloquearHastaTerminar(Lock candado) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("El resumen de ventas se modifica solo dentro de una transacción");
+        }
+        if (TransactionSynchronizationManager.hasResource(candado)) {
+            return;
+        }
+        candado.lock();
+        TransactionSynchronizationManager.bindResource(candado, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(candado);
+                candado.unlock();
+            }
+        });
+    }
+
+    private static boolean cancelado(String estado) {
+        return ESTADO_CANCELADO.equals(estado);
+    }
+
+    private static double valor(Double valor) {
+        return valor != null ? valor : 0.0;
+    }
+}
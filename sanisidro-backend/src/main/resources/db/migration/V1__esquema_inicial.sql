@@ -0,0 +1,122 @@
+-- Esquema base. Usa IF NOT EXISTS para que también se pueda aplicar sobre las
+-- bases existentes que crecieron con ddl-auto=update (baseline-on-migrate).
+
+CREATE TABLE IF NOT EXISTS productos (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(255) NOT NULL,
+    descripcion VARCHAR(500),
+    precio DOUBLE NOT NULL,
+    categoria VARCHAR(255) NOT NULL,
+    disponible BIT,
+    imagen VARCHAR(255),
+    fecha_creacion DATETIME(6),
+    fecha_modificacion DATETIME(6)
+);
+
+CREATE TABLE IF NOT EXISTS usuarios (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    telefono VARCHAR(255),
+    password VARCHAR(255) NOT NULL,
+    pedidos INT,
+    fecha_registro DATE,
+    activo BIT,
+    es_admin BIT,
+    fecha_creacion DATETIME(6),
+    fecha_modificacion DATETIME(6),
+    CONSTRAINT uk_usuarios_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS promociones (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    codigo VARCHAR(255) NOT NULL,
+    titulo VARCHAR(255) NOT NULL,
+    descripcion VARCHAR(255) NOT NULL,
+    descuento DOUBLE NOT NULL,
+    tipo_promocion VARCHAR(255),
+    productos_aplicables VARCHAR(500),
+    monto_minimo DOUBLE,
+    cantidad_minima INT,
+    fecha_inicio DATE,
+    fecha_fin DATE,
+    activa BIT,
+    imagen VARCHAR(500),
+    fecha_creacion DATETIME(6),
+    fecha_modificacion DATETIME(6),
+    CONSTRAINT uk_promociones_codigo UNIQUE (codigo)
+);
+
+CREATE TABLE IF NOT EXISTS pedidos (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    cliente VARCHAR(255),
+    nombre_cliente VARCHAR(255),
+    email VARCHAR(255),
+    telefono VARCHAR(255),
+    numero_factura VARCHAR(255),
+    fecha DATE,
+    hora TIME,
+    subtotal DOUBLE,
+    descuento DOUBLE,
+    codigo_promo VARCHAR(255),
+    total DOUBLE,
+    estado VARCHAR(255) NOT NULL,
+    metodo_pago VARCHAR(255),
+    detalles TEXT,
+    fecha_creacion DATETIME(6),
+    fecha_modificacion DATETIME(6),
+    CONSTRAINT uk_pedidos_numero_factura UNIQUE (numero_factura)
+);
+
+CREATE TABLE IF NOT EXISTS pedido_items (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    pedido_id BIGINT NOT NULL,
+    producto_id BIGINT,
+    nombre VARCHAR(255),
+    cantidad INT,
+    precio DOUBLE,
+    CONSTRAINT fk_pedido_items_pedido FOREIGN KEY (pedido_id) REFERENCES pedidos (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS reservas (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    telefono VARCHAR(255) NOT NULL,
+    fecha DATE NOT NULL,
+    hora TIME NOT NULL,
+    numero_personas INT NOT NULL,
+    comentarios TEXT,
+    estado VARCHAR(255) NOT NULL,
+    fecha_creacion DATETIME(6),
+    fecha_modificacion DATETIME(6)
+);
+
+CREATE TABLE IF NOT EXISTS ventas_diarias (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    fecha DATE NOT NULL,
+    pedidos BIGINT NOT NULL DEFAULT 0,
+    total_bruto DOUBLE NOT NULL DEFAULT 0,
+    descuentos DOUBLE NOT NULL DEFAULT 0,
+    total_neto DOUBLE NOT NULL DEFAULT 0,
+    CONSTRAINT uk_venta_fecha UNIQUE (fecha)
+);
+
+CREATE TABLE IF NOT EXISTS ventas_diarias_promocion (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    fecha DATE NOT NULL,
+    codigo_promo VARCHAR(255) NOT NULL,
+    usos BIGINT NOT NULL DEFAULT 0,
+    descuentos DOUBLE NOT NULL DEFAULT 0,
+    CONSTRAINT uk_venta_promocion UNIQUE (fecha, codigo_promo)
+);
+
+CREATE TABLE IF NOT EXISTS ventas_diarias_producto (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    fecha DATE NOT NULL,
+    nombre VARCHAR(255) NOT NULL,
+    producto_id BIGINT,
+    cantidad BIGINT NOT NULL DEFAULT 0,
+    importe DOUBLE NOT NULL DEFAULT 0,
+    CONSTRAINT uk_venta_producto UNIQUE (fecha, nombre)
+);
@@ -0,0 +1,10 @@
+-- Marca los pedidos cuyo JSON de detalles ya pasó por la migración a
+-- pedido_items, aunque no haya tenido items (carrito vacío o texto libre),
+-- para que no se vuelvan a leer en cada arranque. detalles se conserva:
+-- AdminOrders lo muestra como comentario cuando no es JSON.
+ALTER TABLE pedidos ADD COLUMN detalles_migrados BIT NOT NULL DEFAULT 0;
+
+UPDATE pedidos p
+SET detalles_migrados = 1
+WHERE p.detalles IS NULL
+   OR EXISTS (SELECT 1 FROM pedido_items i WHERE i.pedido_id = p.id);
@@ -0,0 +1,5 @@
+-- V1 crea detalles como TEXT, pero en las bases que ya existían al activar
+-- Flyway (baseline-on-migrate) CREATE TABLE IF NOT EXISTS no hizo nada y la
+-- columna sigue siendo VARCHAR(2000). El carrito todavía envía ahí el JSON
+-- con los comentarios de cada item, que supera ese tamaño en pedidos grandes.
+ALTER TABLE pedidos MODIFY detalles TEXT;
@@ -0,0 +1,121 @@
+package com.sanisidro.carga;
+
+import com.sanisidro.model.Usuario;
+import com.sanisidro.repository.PedidoRepository;
+import com.sanisidro.repository.UsuarioRepository;
+import com.sanisidro.service.UsuarioService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compara UsuarioService.obtenerTodos (un conteo agrupado de pedidos) con el
+ * recorrido anterior, que hacía pedidoRepository.findByEmail(email).size()
+ * por cada usuario. Informa sentencias SQL y latencia (p50/p99) por llamada
+ * para distintas cantidades de usuarios.
+ *
+ * mvn test -Pcarga -Dtest=ConteoPedidosUsuariosCargaTest [-Dcarga.usuarios=100,1000,5000]
+ */
+@Tag("carga")
+@SpringBootTest
+@ActiveProfiles("test")
+class ConteoPedidosUsuariosCargaTest {
+
+    private static final int PEDIDOS_POR_USUARIO = 3;
+    private static final int REPETICIONES = 30;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void conteoAgrupadoContraUnaConsultaPorUsuario() {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.setStatisticsEnabled(true);
+
+        List<String> filas = new ArrayList<>();
+        int creados = 0;
+        for (String valor : System.getProperty("carga.usuarios", "100,1000,5000").split(",")) {
+            int usuarios = Integer.parseInt(valor.trim());
+            crearUsuarios(creados, usuarios);
+            creados = usuarios;
+
+            filas.add(medir("agrupado", usuarios, estadisticas, () -> usuarioService.obtenerTodos().size()));
+            filas.add(medir("findByEmail por usuario", usuarios, estadisticas, this::contarUnoPorUno));
+        }
+
+        System.out.println();
+        System.out.println(String.format("%-26s %10s %14s %10s %10s",
+                "implementación", "usuarios", "sentencias", "p50 ms", "p99 ms"));
+        filas.forEach(System.out::println);
+    }
+
+    /**
+     * La implementación anterior de obtenerTodos.
+     */
+    private int contarUnoPorUno() {
+        List<Usuario> usuarios = usuarioRepository.findAll();
+        for (Usuario usuario : usuarios) {
+            usuario.setPedidos(pedidoRepository.findByEmail(usuario.getEmail()).size());
+        }
+        return usuarios.size();
+    }
+
+    private static String medir(String nombre, int usuarios, Statistics estadisticas, Supplier<Integer> llamada) {
+        // Calentamiento del JIT y de las cachés de Hibernate
+        for (int i = 0; i < 3; i++) {
+            llamada.get();
+        }
+        long[] nanos = new long[REPETICIONES];
+        estadisticas.clear();
+        for (int i = 0; i < REPETICIONES; i++) {
+            long inicio = System.nanoTime();
+            llamada.get();
+            nanos[i] = System.nanoTime() - inicio;
+        }
+        long sentencias = estadisticas.getPrepareStatementCount() / REPETICIONES;
+        Arrays.sort(nanos);
+        return String.format("%-26s %10d %14d %10.2f %10.2f", nombre, usuarios, sentencias,
+                nanos[REPETICIONES / 2] / 1e6, nanos[(int) Math.ceil(REPETICIONES * 0.99) - 1] / 1e6);
+    }
+
+    private void crearUsuarios(int desde, int hasta) {
+        List<Object[]> usuarios = new ArrayList<>();
+        List<Object[]> pedidos = new ArrayList<>();
+        Date hoy = Date.valueOf(LocalDate.now());
+        for (int i = desde; i < hasta; i++) {
+            String email = "cliente" + i + "@test.pe";
+            usuarios.add(new Object[]{"Cliente " + i, email, "x"});
+            for (int j = 0; j < PEDIDOS_POR_USUARIO; j++) {
+                pedidos.add(new Object[]{"Cliente " + i, email, hoy, 20.0, "entregado"});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO usuarios (nombre, email, password) VALUES (?, ?, ?)", usuarios);
+        jdbcTemplate.batchUpdate("INSERT INTO pedidos (cliente, email, fecha, total, estado) VALUES (?, ?, ?, ?, ?)",
+                pedidos);
+    }
+}
@@ -0,0 +1,138 @@
+package com.sanisidro.carga;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Generador de carga HTTP de lazo cerrado: cada cliente envía una petición,
+ * espera la respuesta y envía la siguiente. Las latencias del calentamiento
+ * no se cuentan.
+ *
+ * Los clientes son hilos de plataforma para no competir con el servidor por
+ * los carrier threads cuando este corre con hilos virtuales en la misma JVM.
+ */
+public final class GeneradorCarga {
+
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final int concurrencia;
+    private final Duration calentamiento;
+    private final Duration duracion;
+
+    public GeneradorCarga(int concurrencia, Duration calentamiento, Duration duracion) {
+        this.concurrencia = concurrencia;
+        this.calentamiento = calentamiento;
+        this.duracion = duracion;
+    }
+
+    /**
+     * @param uris URI de la petición número n (para variar parámetros y evitar cachés)
+     */
+    public Resultado medir(String nombre, IntFunction<URI> uris) throws Exception {
+        long inicioMedicion = System.nanoTime() + calentamiento.toNanos();
+        long fin = inicioMedicion + duracion.toNanos();
+        AtomicInteger contador = new AtomicInteger();
+
+        List<Future<Muestras>> clientes = new ArrayList<>();
+        try (ExecutorService hilos = Executors.newThreadPerTaskExecutor(Thread.ofPlatform().daemon().factory())) {
+            for (int i = 0; i < concurrencia; i++) {
+                clientes.add(hilos.submit(() -> {
+                    Muestras muestras = new Muestras();
+                    while (System.nanoTime() < fin) {
+                        HttpRequest peticion = HttpRequest.newBuilder(uris.apply(contador.getAndIncrement()))
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long inicio = System.nanoTime();
+                        boolean error;
+                        try {
+                            error = cliente.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400;
+                        } catch (IOException e) {
+                            error = true;
+                        }
+                        long termino = System.nanoTime();
+                        if (inicio >= inicioMedicion && termino <= fin) {
+                            muestras.agregar(termino - inicio, error);
+                        }
+                    }
+                    return muestras;
+                }));
+            }
+        }
+
+        Muestras total = new Muestras();
+        for (Future<Muestras> muestras : clientes) {
+            total.agregar(muestras.get());
+        }
+        return total.resultado(nombre, duracion);
+    }
+
+    public record Resultado(String nombre, long peticiones, long errores, double porSegundo,
+                            double p50Ms, double p99Ms) {
+
+        @Override
+        public String toString() {
+            return String.format("%-40s %10d %8d %12.1f %10.2f %10.2f",
+                    nombre, peticiones, errores, porSegundo, p50Ms, p99Ms);
+        }
+
+        public static String encabezado() {
+            return String.format("%-40s %10s %8s %12s %10s %10s",
+                    "escenario", "peticiones", "errores", "peticiones/s", "p50 ms", "p99 ms");
+        }
+    }
+
+    private static final class Muestras {
+        private long[] latencias = new long[1024];
+        private int cantidad;
+        private long errores;
+
+        void agregar(long nanos, boolean error) {
+            if (cantidad == latencias.length) {
+                latencias = Arrays.copyOf(latencias, cantidad * 2);
+            }
+            latencias[cantidad++] = nanos;
+            if (error) {
+                errores++;
+            }
+        }
+
+        void agregar(Muestras otras) {
+            for (int i = 0; i < otras.cantidad; i++) {
+                agregar(otras.latencias[i], false);
+            }
+            errores += otras.errores;
+        }
+
+        Resultado resultado(String nombre, Duration duracion) {
+            long[] ordenadas = Arrays.copyOf(latencias, cantidad);
+            Arrays.sort(ordenadas);
+            return new Resultado(nombre, cantidad, errores,
+                    cantidad / (duracion.toNanos() / 1e9),
+                    percentil(ordenadas, 0.50), percentil(ordenadas, 0.99));
+        }
+
+        private static double percentil(long[] ordenadas, double p) {
+            if (ordenadas.length == 0) {
+                return Double.NaN;
+            }
+            int indice = (int) Math.ceil(p * ordenadas.length) - 1;
+            return ordenadas[Math.max(indice, 0)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.sanisidro.carga;
+
+import com.sanisidro.SanIsidroApplication;
+import com.sanisidro.model.Pedido;
+import com.sanisidro.repository.PedidoRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Compara el throughput y el p99 de los endpoints de pedidos y RENIEC con
+ * hilos virtuales y con el pool de plataforma de Tomcat (200 hilos).
+ *
+ * RENIEC se simula con un servidor local que tarda reniecMs en responder,
+ * así la espera por la API externa domina como en producción. Los pedidos
+ * usan H2; para medir contra MySQL se pasan -Dspring.datasource.url,
+ * username, password y driver-class-name.
+ *
+ * Los dos modos corren en la misma JVM y se alternan por rondas; solo se
+ * informa la última, las anteriores sirven para calentar el JIT (sin eso el
+ * primer modo medido sale siempre peor).
+ *
+ * mvn test -Pcarga [-Dcarga.concurrencia=400 -Dcarga.segundos=20 -Dcarga.reniec-ms=50 -Dcarga.rondas=2]
+ */
+@Tag("carga")
+class HilosVirtualesCargaTest {
+
+    private static final int CONCURRENCIA = Integer.getInteger("carga.concurrencia", 400);
+    private static final int SEGUNDOS = Integer.getInteger("carga.segundos", 20);
+    private static final int RENIEC_MS = Integer.getInteger("carga.reniec-ms", 50);
+    private static final int RONDAS = Integer.getInteger("carga.rondas", 2);
+
+    @Test
+    void compararHilosVirtualesYPlataforma() throws Exception {
+        HttpServer reniec = reniecSimulado();
+        try {
+            List<GeneradorCarga.Resultado> resultados = new ArrayList<>();
+            for (int ronda = 1; ronda <= RONDAS; ronda++) {
+                resultados.clear();
+                for (boolean virtuales : new boolean[]{true, false}) {
+                    resultados.addAll(medir(virtuales, ronda, reniec.getAddress().getPort()));
+                }
+            }
+            System.out.println();
+            System.out.println(GeneradorCarga.Resultado.encabezado());
+            resultados.forEach(System.out::println);
+        } finally {
+            reniec.stop(0);
+        }
+    }
+
+    private List<GeneradorCarga.Resultado> medir(boolean virtuales, int ronda, int puertoReniec) throws Exception {
+        // Argumentos de línea de comandos: tienen prioridad sobre application-test.properties
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(SanIsidroApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                     "--spring.threads.virtual.enabled=" + virtuales,
+                     "--server.tomcat.threads.max=200",
+                     "--reniec.api-url=http://localhost:" + puertoReniec + "/dni",
+                     "--reniec.max-concurrentes=" + (CONCURRENCIA * 2),
+                     "--logging.level.com.sanisidro=WARN")) {
+            crearPedidos(contexto.getBean(PedidoRepository.class));
+            String base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+            String modo = virtuales ? "virtuales" : "plataforma";
+
+            GeneradorCarga carga = new GeneradorCarga(CONCURRENCIA, Duration.ofSeconds(5), Duration.ofSeconds(SEGUNDOS));
+            List<GeneradorCarga.Resultado> resultados = new ArrayList<>();
+            resultados.add(carga.medir("GET /api/pedidos/pagina (" + modo + ")",
+                    n -> URI.create(base + "/api/pedidos/pagina")));
+            // Un DNI distinto por petición para no responder desde la caché
+            int semilla = 10_000_000 * ronda + (virtuales ? 0 : 5_000_000);
+            resultados.add(carga.medir("GET /api/reniec/consulta (" + modo + ")",
+                    n -> URI.create(base + "/api/reniec/consulta/" + (semilla + n))));
+            return resultados;
+        }
+    }
+
+    private static void crearPedidos(PedidoRepository pedidoRepository) {
+        if (pedidoRepository.count() > 0) {
+            return;
+        }
+        List<Pedido> pedidos = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Pedido pedido = new Pedido();
+            pedido.setCliente("Cliente " + i);
+            pedido.setEmail("cliente" + i + "@test.pe");
+            pedido.setTotal(20.0);
+            pedidos.add(pedido);
+        }
+        pedidoRepository.saveAll(pedidos);
+    }
+
+    private static HttpServer reniecSimulado() throws Exception {
+        HttpServer servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 1000);
+        servidor.setExecutor(Executors.newCachedThreadPool());
+        servidor.createContext("/dni", intercambio -> {
+            try {
+                Thread.sleep(RENIEC_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] cuerpo = ("{\"first_name\":\"JUAN\",\"first_last_name\":\"PEREZ\"," +
+                    "\"second_last_name\":\"QUISPE\",\"document_number\":\"00000000\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().add("Content-Type", "application/json");
+            intercambio.sendResponseHeaders(200, cuerpo.length);
+            intercambio.getResponseBody().write(cuerpo);
+            intercambio.close();
+        });
+        servidor.start();
+        return servidor;
+    }
+}
@@ -0,0 +1,84 @@
+package com.sanisidro.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sanisidro.model.ItemPedido;
+import com.sanisidro.service.ItemPedidoDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodificación de Pedido.detalles: ItemPedidoDecoder (parser de streaming
+ * con el JsonFactory compartido) contra el camino anterior, que creaba un
+ * ObjectMapper por pedido y recorría un árbol JsonNode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemPedidoDecoderBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int items;
+
+    private String detalles;
+    private ItemPedidoDecoder decoder;
+
+    @Setup
+    public void preparar() {
+        decoder = new ItemPedidoDecoder(new ObjectMapper());
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < items; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            // Mismo formato que guarda el carrito del frontend
+            json.append("{\"id\":").append(i + 1)
+                .append(",\"nombre\":\"Ceviche de pescado ").append(i)
+                .append("\",\"precio\":35.5,\"cantidad\":2,\"categoria\":\"Ceviches\"")
+                .append(",\"imagen\":\"/uploads/promociones/ceviche.jpg\",\"descripcion\":\"Pescado del día\"}");
+        }
+        detalles = json.append(']').toString();
+    }
+
+    @Benchmark
+    public List<ItemPedido> decoderCompartido() throws IOException {
+        return decoder.decodificar(detalles);
+    }
+
+    @Benchmark
+    public List<ItemPedido> objectMapperPorPedido() throws IOException {
+        List<ItemPedido> resultado = new ArrayList<>();
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode jsonNode = mapper.readTree(detalles);
+        if (jsonNode.isArray()) {
+            for (JsonNode node : jsonNode) {
+                ItemPedido item = new ItemPedido();
+                if (node.hasNonNull("id") && node.get("id").canConvertToLong()) {
+                    item.setProductoId(node.get("id").asLong());
+                }
+                item.setNombre(node.path("nombre").asText(null));
+                item.setCantidad(node.path("cantidad").asInt());
+                item.setPrecio(node.path("precio").asDouble());
+                resultado.add(item);
+            }
+        }
+        return resultado;
+    }
+}
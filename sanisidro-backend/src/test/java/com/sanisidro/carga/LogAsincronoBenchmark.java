@@ -0,0 +1,113 @@
+package com.sanisidro.carga;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.AppenderBase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Costo de un log.info del camino de una petición según la velocidad de la
+ * salida (consola o disco), con el appender directo y con el AsyncAppender
+ * configurado como en logback-spring.xml.
+ *
+ * La salida lenta se simula con un appender sincronizado (como
+ * ConsoleAppender) que tarda retardoMicros por evento. Con el appender
+ * asíncrono la latencia no debe crecer con el retardo: cuando la cola se
+ * llena los eventos INFO se descartan en lugar de bloquear la petición.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class LogAsincronoBenchmark {
+
+    @Param({"sincrono", "asincrono"})
+    private String modo;
+
+    @Param({"0", "100"})
+    private long retardoMicros;
+
+    private LoggerContext contexto;
+    private Logger log;
+    private final AtomicLong pedidos = new AtomicLong();
+
+    @Setup
+    public void preparar() {
+        contexto = new LoggerContext();
+        SalidaLenta salida = new SalidaLenta(TimeUnit.MICROSECONDS.toNanos(retardoMicros));
+        salida.setContext(contexto);
+        salida.start();
+
+        Appender<ILoggingEvent> appender = salida;
+        if ("asincrono".equals(modo)) {
+            // Mismos valores que ASYNC_CONSOLE / ASYNC_FILE
+            AsyncAppender asincrono = new AsyncAppender();
+            asincrono.setContext(contexto);
+            asincrono.setQueueSize(8192);
+            asincrono.setDiscardingThreshold(1638);
+            asincrono.setNeverBlock(true);
+            asincrono.setIncludeCallerData(false);
+            asincrono.addAppender(salida);
+            asincrono.start();
+            appender = asincrono;
+        }
+
+        Logger raiz = contexto.getLogger(Logger.ROOT_LOGGER_NAME);
+        raiz.setLevel(Level.INFO);
+        raiz.addAppender(appender);
+        log = contexto.getLogger("com.sanisidro.service.PedidoService");
+    }
+
+    @TearDown
+    public void cerrar() {
+        contexto.stop();
+    }
+
+    @Benchmark
+    public void pedidoCreado() {
+        log.info("pedido.creado id={} total={} items={}", pedidos.incrementAndGet(), 35.5, 3);
+    }
+
+    /**
+     * Appender sincronizado que tarda un tiempo fijo por evento.
+     */
+    private static final class SalidaLenta extends AppenderBase<ILoggingEvent> {
+
+        private final long retardoNanos;
+
+        SalidaLenta(long retardoNanos) {
+            this.retardoNanos = retardoNanos;
+        }
+
+        @Override
+        protected void append(ILoggingEvent evento) {
+            evento.getFormattedMessage();
+            if (retardoNanos > 0) {
+                LockSupport.parkNanos(retardoNanos);
+            }
+        }
+    }
+}
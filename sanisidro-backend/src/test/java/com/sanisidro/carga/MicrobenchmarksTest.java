@@ -0,0 +1,27 @@
+package com.sanisidro.carga;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Ejecuta los benchmarks JMH (clases *Benchmark de este paquete) e imprime
+ * sus resultados.
+ *
+ * mvn test -Pcarga -Dtest=MicrobenchmarksTest [-Dcarga.jmh=ItemPedidoDecoderBenchmark]
+ */
+@Tag("carga")
+class MicrobenchmarksTest {
+
+    @Test
+    void ejecutar() throws Exception {
+        String incluir = System.getProperty("carga.jmh", "Benchmark");
+        Options opciones = new OptionsBuilder()
+                .include(MicrobenchmarksTest.class.getPackageName() + ".*" + incluir + ".*")
+                .shouldFailOnError(true)
+                .build();
+        new Runner(opciones).run();
+    }
+}
@@ -0,0 +1,172 @@
+package com.sanisidro.config;
+
+import com.sanisidro.model.Usuario;
+import com.sanisidro.repository.UsuarioRepository;
+import com.sanisidro.service.TokenService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Reglas de acceso del filtro. Con AutoConfigureObservability para que
+ * /actuator/prometheus exista también en los tests.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class AutenticacionFilterTest {
+
+    private static final String RUTA_ADMIN = "/api/admin/stats";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Value("${seguridad.token.secreto}")
+    private String secreto;
+
+    @Value("${seguridad.metricas.token}")
+    private String tokenMetricas;
+
+    private Usuario admin;
+    private Usuario cliente;
+    private Usuario otro;
+
+    @BeforeEach
+    void crearUsuarios() {
+        admin = crearUsuario("admin@test.pe", true);
+        cliente = crearUsuario("cliente@test.pe", false);
+        otro = crearUsuario("otro@test.pe", false);
+    }
+
+    @AfterEach
+    void limpiar() {
+        usuarioRepository.deleteAll();
+    }
+
+    @Test
+    void rutaAdminSegunSesion() throws Exception {
+        mockMvc.perform(get(RUTA_ADMIN)).andExpect(status().isUnauthorized());
+        mockMvc.perform(get(RUTA_ADMIN).header(HttpHeaders.AUTHORIZATION, bearer(cliente)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get(RUTA_ADMIN).header(HttpHeaders.AUTHORIZATION, bearer(admin)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void rutaAdminCodificadaNoEsPublica() throws Exception {
+        mockMvc.perform(get(URI.create("/api/%61dmin/stats"))).andExpect(status().isUnauthorized());
+        mockMvc.perform(get(URI.create("/api/%61dmin/stats")).header(HttpHeaders.AUTHORIZATION, bearer(cliente)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get(URI.create("/api/%2561dmin/stats"))).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void usuarioSoloModificaSusPropiosDatosPermitidos() throws Exception {
+        String cuerpo = """
+                {"nombre": "Cambiado", "email": "robado@test.pe", "telefono": "999", "activo": false}
+                """;
+        mockMvc.perform(put("/api/usuarios/" + otro.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(cliente))
+                        .contentType(MediaType.APPLICATION_JSON).content(cuerpo))
+                .andExpect(status().isForbidden());
+        assertEquals("otro@test.pe", usuarioRepository.findById(otro.getId()).orElseThrow().getNombre());
+
+        mockMvc.perform(put("/api/usuarios/" + cliente.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(cliente))
+                        .contentType(MediaType.APPLICATION_JSON).content(cuerpo))
+                .andExpect(status().isOk());
+        Usuario guardado = usuarioRepository.findById(cliente.getId()).orElseThrow();
+        assertEquals("Cambiado", guardado.getNombre());
+        assertEquals("cliente@test.pe", guardado.getEmail());
+        assertTrue(guardado.getActivo());
+    }
+
+    @Test
+    void tokenRevocadoNoSirve() throws Exception {
+        String token = bearer(admin);
+        mockMvc.perform(post("/api/usuarios/logout").header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get(RUTA_ADMIN).header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void tokenExpiradoNoSirve() throws Exception {
+        long ahora = System.currentTimeMillis() / 1000;
+        // El mismo token sin expirar sí vale: el 401 se debe solo a exp
+        mockMvc.perform(get(RUTA_ADMIN).header(HttpHeaders.AUTHORIZATION, "Bearer " + firmar(claimsAdmin(ahora + 3600))))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(RUTA_ADMIN).header(HttpHeaders.AUTHORIZATION, "Bearer " + firmar(claimsAdmin(ahora - 3600))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void actuatorSoloExponeHealth() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, bearer(cliente)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, bearer(admin)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenMetricas))
+                .andExpect(status().isOk());
+    }
+
+    private Usuario crearUsuario(String email, boolean esAdmin) {
+        Usuario usuario = new Usuario();
+        usuario.setNombre(email);
+        usuario.setEmail(email);
+        usuario.setPassword("x");
+        usuario.setEsAdmin(esAdmin);
+        return usuarioRepository.save(usuario);
+    }
+
+    private String bearer(Usuario usuario) {
+        return "Bearer " + tokenService.emitir(usuario);
+    }
+
+    private String claimsAdmin(long expira) {
+        long emitido = expira - 7200;
+        return """
+                {"sub":"%d","email":"admin@test.pe","adm":true,"iat":%d,"iat_ms":%d,"exp":%d,"jti":"j%d"}
+                """.formatted(admin.getId(), emitido, emitido * 1000, expira, expira).trim();
+    }
+
+    private String firmar(String claims) throws Exception {
+        Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+        String contenido = base64.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8))
+                + "." + base64.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secreto.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return contenido + "." + base64.encodeToString(mac.doFinal(contenido.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,140 @@
+package com.sanisidro.controller;
+
+import com.sanisidro.model.ItemPedido;
+import com.sanisidro.model.Pedido;
+import com.sanisidro.model.Producto;
+import com.sanisidro.model.Reserva;
+import com.sanisidro.model.Usuario;
+import com.sanisidro.repository.ItemPedidoRepository;
+import com.sanisidro.repository.PedidoRepository;
+import com.sanisidro.repository.ProductoRepository;
+import com.sanisidro.repository.ReservaRepository;
+import com.sanisidro.repository.UsuarioRepository;
+import com.sanisidro.support.LimiteConsultasSql;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Los listados deben hacer una cantidad fija de consultas, sin importar
+ * cuántas filas devuelven: un N+1 hace crecer el conteo con los datos.
+ * MUCHAS_FILAS supera el @BatchSize(100) de Pedido.items, que solo reduce
+ * el N+1 a una consulta cada 100 pedidos.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConsultasPorEndpointTest {
+
+    private static final int POCAS_FILAS = 3;
+    private static final int MUCHAS_FILAS = 250;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private ItemPedidoRepository itemPedidoRepository;
+
+    @AfterEach
+    void limpiar() {
+        itemPedidoRepository.deleteAllInBatch();
+        pedidoRepository.deleteAllInBatch();
+        reservaRepository.deleteAllInBatch();
+        usuarioRepository.deleteAllInBatch();
+        productoRepository.deleteAllInBatch();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/api/usuarios", "/api/usuarios/pagina?limit=100",
+            "/api/pedidos", "/api/pedidos/pagina?limit=100", "/api/pedidos/cocina",
+            "/api/pedidos/estado/pendiente", "/api/pedidos/usuario/cliente0@test.pe",
+            "/api/reservas", "/api/reservas/pagina?limit=100",
+            "/api/productos/pagina?limit=100"
+    })
+    void listadoHaceConsultasConstantes(String ruta) throws Exception {
+        crearDatos(0, POCAS_FILAS);
+        int conPocas = consultas(ruta, 2);
+
+        crearDatos(POCAS_FILAS, MUCHAS_FILAS);
+        int conMuchas = consultas(ruta, 2);
+
+        assertEquals(conPocas, conMuchas, ruta + " hace más consultas cuando hay más filas (N+1)");
+    }
+
+    private int consultas(String ruta, int maximo) throws Exception {
+        MvcResult resultado = mockMvc.perform(get(ruta))
+                .andExpect(status().isOk())
+                .andExpect(LimiteConsultasSql.maximo(maximo))
+                .andReturn();
+        return LimiteConsultasSql.consultas(resultado);
+    }
+
+    private void crearDatos(int desde, int hasta) {
+        for (int i = desde; i < hasta; i++) {
+            String email = "cliente" + i + "@test.pe";
+
+            Usuario usuario = new Usuario();
+            usuario.setNombre("Cliente " + i);
+            usuario.setEmail(email);
+            usuario.setPassword("x");
+            usuarioRepository.save(usuario);
+
+            Pedido pedido = new Pedido();
+            pedido.setCliente("Cliente " + i);
+            // La mitad de los pedidos son de un mismo cliente, para /api/pedidos/usuario/{email}
+            pedido.setEmail("cliente" + (i % 2) + "@test.pe");
+            pedido.setSubtotal(20.0);
+            pedido.setTotal(20.0);
+            ItemPedido item = new ItemPedido();
+            item.setPedido(pedido);
+            item.setProductoId(1L);
+            item.setNombre("Ceviche");
+            item.setCantidad(2);
+            item.setPrecio(10.0);
+            pedido.setItems(new java.util.ArrayList<>(List.of(item)));
+            pedidoRepository.save(pedido);
+
+            Reserva reserva = new Reserva();
+            reserva.setNombre("Cliente " + i);
+            reserva.setEmail(email);
+            reserva.setTelefono("999999999");
+            reserva.setFecha(LocalDate.now().plusDays(1));
+            reserva.setHora(LocalTime.of(13, 0));
+            reserva.setNumeroPersonas(2);
+            reservaRepository.save(reserva);
+
+            Producto producto = new Producto();
+            producto.setNombre("Plato " + i);
+            producto.setPrecio(10.0);
+            producto.setCategoria("Entradas");
+            productoRepository.save(producto);
+        }
+    }
+}
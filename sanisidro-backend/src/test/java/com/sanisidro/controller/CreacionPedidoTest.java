@@ -0,0 +1,108 @@
+package com.sanisidro.controller;
+
+import com.sanisidro.model.ItemPedido;
+import com.sanisidro.model.Pedido;
+import com.sanisidro.model.Producto;
+import com.sanisidro.repository.PedidoRepository;
+import com.sanisidro.repository.ProductoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * POST /api/pedidos es público: el id, estado, fecha y número de factura que
+ * envíe el cliente no deben llegar a la base de datos.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CreacionPedidoTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void limpiar() {
+        pedidoRepository.deleteAll();
+        productoRepository.deleteAll();
+    }
+
+    @Test
+    void idExistenteCreaOtroPedidoSinTocarElOriginal() throws Exception {
+        Producto producto = new Producto();
+        producto.setNombre("Ceviche");
+        producto.setPrecio(10.0);
+        producto.setCategoria("Entradas");
+        producto = productoRepository.save(producto);
+
+        Pedido original = new Pedido();
+        original.setCliente("Original");
+        original.setEmail("original@test.pe");
+        original.setNumeroFactura("20250101-120000");
+        original.setFecha(LocalDate.of(2025, 1, 1));
+        original.setEstado("entregado");
+        original.setSubtotal(10.0);
+        original.setTotal(10.0);
+        ItemPedido item = new ItemPedido();
+        item.setPedido(original);
+        item.setProductoId(producto.getId());
+        item.setNombre("Ceviche");
+        item.setCantidad(1);
+        item.setPrecio(10.0);
+        original.setItems(new ArrayList<>(List.of(item)));
+        Long id = pedidoRepository.save(original).getId();
+
+        String cuerpo = """
+                {"id": %d, "cliente": "Atacante", "email": "otro@test.pe",
+                 "numeroFactura": "20250101-120000", "fecha": "2020-01-01", "hora": "00:00:00",
+                 "estado": "entregado", "total": 0.01,
+                 "items": [{"productoId": %d, "cantidad": 5, "precio": 0.01}]}
+                """.formatted(id, producto.getId());
+
+        mockMvc.perform(post("/api/pedidos").contentType(MediaType.APPLICATION_JSON).content(cuerpo))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(not(id.intValue())))
+                .andExpect(jsonPath("$.estado").value("pendiente"))
+                .andExpect(jsonPath("$.numeroFactura").value(startsWith("B")))
+                .andExpect(jsonPath("$.fecha").value(not("2020-01-01")))
+                .andExpect(jsonPath("$.total").value(50.0));
+
+        assertEquals(2, pedidoRepository.count());
+        transactionTemplate.executeWithoutResult(estado -> {
+            Pedido guardado = pedidoRepository.findById(id).orElseThrow();
+            assertEquals("Original", guardado.getCliente());
+            assertEquals("original@test.pe", guardado.getEmail());
+            assertEquals("entregado", guardado.getEstado());
+            assertEquals("20250101-120000", guardado.getNumeroFactura());
+            assertEquals(10.0, guardado.getTotal());
+            assertEquals(1, guardado.getItems().size());
+            assertEquals(1, guardado.getItems().get(0).getCantidad());
+        });
+    }
+}
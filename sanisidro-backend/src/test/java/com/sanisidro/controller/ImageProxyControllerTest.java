@@ -0,0 +1,122 @@
+package com.sanisidro.controller;
+
+import com.sanisidro.service.ImagenProxyService;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Estado que devuelve el proxy según cómo falla el origen: 404 si no tiene
+ * la imagen, 502 si responde con error o corta la conexión y 504 si no
+ * responde a tiempo.
+ */
+class ImageProxyControllerTest {
+
+    private static final long TIMEOUT_LECTURA_MS = 500;
+
+    @TempDir
+    Path directorio;
+
+    private HttpServer origen;
+    private ExecutorService hilosOrigen;
+    private ImagenProxyService imagenProxyService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void iniciar() throws Exception {
+        hilosOrigen = Executors.newCachedThreadPool();
+        origen = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        origen.setExecutor(hilosOrigen);
+        origen.createContext("/no-existe", intercambio -> {
+            intercambio.sendResponseHeaders(404, -1);
+            intercambio.close();
+        });
+        origen.createContext("/error", intercambio -> {
+            intercambio.sendResponseHeaders(500, -1);
+            intercambio.close();
+        });
+        // Envía los headers y se queda sin enviar el cuerpo
+        origen.createContext("/lenta", intercambio -> {
+            intercambio.sendResponseHeaders(200, 1024);
+            try {
+                Thread.sleep(TIMEOUT_LECTURA_MS * 6);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            intercambio.close();
+        });
+        origen.start();
+
+        imagenProxyService = new ImagenProxyService();
+        ReflectionTestUtils.setField(imagenProxyService, "directorioCache", directorio.toString());
+        ReflectionTestUtils.setField(imagenProxyService, "cacheMaxMb", 1L);
+        ReflectionTestUtils.setField(imagenProxyService, "maxBytesImagen", 1024L * 1024);
+        ReflectionTestUtils.setField(imagenProxyService, "revalidarMinutos", 60L);
+        ReflectionTestUtils.setField(imagenProxyService, "timeoutConexionMs", 1000L);
+        ReflectionTestUtils.setField(imagenProxyService, "timeoutLecturaMs", TIMEOUT_LECTURA_MS);
+        ReflectionTestUtils.setField(imagenProxyService, "meterRegistry", new SimpleMeterRegistry());
+        imagenProxyService.inicializar();
+
+        ImageProxyController controller = new ImageProxyController();
+        ReflectionTestUtils.setField(controller, "imagenProxyService", imagenProxyService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void detener() {
+        imagenProxyService.cerrar();
+        origen.stop(0);
+        hilosOrigen.shutdownNow();
+    }
+
+    @Test
+    void origenSinLaImagenDevuelve404() throws Exception {
+        pedir(origen("/no-existe"), status().isNotFound());
+    }
+
+    @Test
+    void origenConErrorDevuelve502() throws Exception {
+        pedir(origen("/error"), status().isBadGateway());
+    }
+
+    @Test
+    void origenCaidoDevuelve502() throws Exception {
+        int puertoLibre;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            puertoLibre = socket.getLocalPort();
+        }
+        pedir("http://localhost:" + puertoLibre + "/imagen.png", status().isBadGateway());
+    }
+
+    @Test
+    void origenLentoDevuelve504() throws Exception {
+        pedir(origen("/lenta"), status().isGatewayTimeout());
+    }
+
+    private void pedir(String url, ResultMatcher estado) throws Exception {
+        String codificada = Base64.getUrlEncoder().encodeToString(url.getBytes(StandardCharsets.UTF_8));
+        mockMvc.perform(get("/api/image-proxy").param("url", codificada)).andExpect(estado);
+    }
+
+    private String origen(String ruta) {
+        return "http://localhost:" + origen.getAddress().getPort() + ruta;
+    }
+}
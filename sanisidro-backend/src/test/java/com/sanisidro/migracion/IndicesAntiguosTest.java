@@ -0,0 +1,66 @@
+package com.sanisidro.migracion;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * V2 sobre una base creada con los scripts antiguos: reemplaza idx_email e
+ * idx_fecha por los compuestos y deja intactos los índices que no conoce.
+ * Se omite si no hay Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class IndicesAntiguosTest {
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @Test
+    void eliminaSoloLosIndicesAntiguosConocidos() throws Exception {
+        try (Connection conexion = conectar(); Statement statement = conexion.createStatement()) {
+            statement.execute(Files.readString(Path.of("sql/create_reservas_table.sql")));
+            // Índice de un reporte, cubierto por idx_reservas_email_fecha pero ajeno a la migración
+            statement.execute("CREATE INDEX idx_reporte_email ON reservas (email)");
+        }
+
+        Flyway.configure()
+                .dataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword())
+                .locations("classpath:db/migration", "classpath:com/sanisidro/migracion")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+
+        assertEquals(Set.of("idx_estado", "idx_reporte_email", "idx_reservas_email_fecha", "idx_reservas_fecha_hora"),
+                indices("reservas"));
+    }
+
+    private static Connection conectar() throws Exception {
+        return DriverManager.getConnection(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+    }
+
+    private static Set<String> indices(String tabla) throws Exception {
+        Set<String> indices = new HashSet<>();
+        try (Connection conexion = conectar(); Statement statement = conexion.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT DISTINCT index_name FROM information_schema.statistics " +
+                     "WHERE table_schema = DATABASE() AND table_name = '" + tabla + "' AND non_unique = 1")) {
+            while (rs.next()) {
+                indices.add(rs.getString(1).toLowerCase());
+            }
+        }
+        return indices;
+    }
+}
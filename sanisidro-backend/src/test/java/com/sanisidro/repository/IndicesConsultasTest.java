@@ -0,0 +1,171 @@
+package com.sanisidro.repository;
+
+import com.sanisidro.support.SqlCapturado;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Aplica las migraciones V1/V2 sobre MySQL y verifica con EXPLAIN que el SQL
+ * que genera Hibernate para cada finder usa el índice esperado. Se omite si
+ * no hay Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+@ActiveProfiles("test")
+class IndicesConsultasTest {
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    private static final LocalDate HOY = LocalDate.of(2024, 6, 15);
+
+    // El contenedor y el contexto se comparten entre los tests de la clase
+    private static boolean datosCreados;
+
+    @DynamicPropertySource
+    static void baseDeDatos(DynamicPropertyRegistry registro) {
+        registro.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registro.add("spring.datasource.username", MYSQL::getUsername);
+        registro.add("spring.datasource.password", MYSQL::getPassword);
+        registro.add("spring.datasource.driver-class-name", () -> "com.mysql.cj.jdbc.Driver");
+        registro.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registro.add("spring.flyway.enabled", () -> "true");
+        registro.add("spring.jpa.properties.hibernate.session_factory.statement_inspector",
+                SqlCapturado.class::getName);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private ReservaRepository reservaRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    /**
+     * Suficientes filas, con los valores consultados poco frecuentes, para
+     * que el optimizador prefiera el índice a recorrer la tabla.
+     */
+    @BeforeEach
+    void crearDatos() {
+        if (datosCreados) {
+            return;
+        }
+        datosCreados = true;
+        List<Object[]> pedidos = new ArrayList<>();
+        List<Object[]> reservas = new ArrayList<>();
+        List<Object[]> productos = new ArrayList<>();
+        List<Object[]> usuarios = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String email = "cliente" + (i % 1000) + "@test.pe";
+            String estadoPedido = i % 50 == 0 ? "pendiente" : i % 50 == 1 ? "preparando" : "entregado";
+            Date fecha = Date.valueOf(HOY.minusDays(i % 730));
+            Time hora = Time.valueOf(LocalTime.of(11 + i % 10, 0));
+            pedidos.add(new Object[]{"Cliente " + i, email, fecha, hora, 20.0, estadoPedido});
+            reservas.add(new Object[]{"Cliente " + i, email, "999999999", fecha, hora, 2,
+                    i % 50 == 0 ? "pendiente" : "confirmada"});
+        }
+        for (int i = 0; i < 2000; i++) {
+            productos.add(new Object[]{"Plato " + i, 25.0, "categoria" + (i % 40), i % 50 != 0});
+        }
+        for (int i = 0; i < 1000; i++) {
+            usuarios.add(new Object[]{"Usuario " + i, "usuario" + i + "@test.pe", "x"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO pedidos (cliente, email, fecha, hora, total, estado) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", pedidos);
+        jdbcTemplate.update("INSERT INTO pedido_items (pedido_id, nombre, cantidad, precio) " +
+                "SELECT id, 'Ceviche', 1, 20.0 FROM pedidos");
+        jdbcTemplate.batchUpdate("INSERT INTO reservas (nombre, email, telefono, fecha, hora, numero_personas, estado) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", reservas);
+        jdbcTemplate.batchUpdate("INSERT INTO productos (nombre, precio, categoria, disponible) " +
+                "VALUES (?, ?, ?, ?)", productos);
+        jdbcTemplate.batchUpdate("INSERT INTO usuarios (nombre, email, password) VALUES (?, ?, ?)", usuarios);
+        jdbcTemplate.execute("ANALYZE TABLE pedidos, pedido_items, reservas, productos, usuarios");
+    }
+
+    @Test
+    void pedidos() {
+        assertUsaIndice("idx_pedidos_email", () -> pedidoRepository.findByEmail("cliente7@test.pe"),
+                "cliente7@test.pe");
+        assertUsaIndice("idx_pedidos_estado_fecha_hora", () -> pedidoRepository.findByEstado("pendiente"),
+                "pendiente");
+        assertUsaIndice("idx_pedidos_estado_fecha_hora",
+                () -> pedidoRepository.findColaCocina(List.of("pendiente", "preparando")),
+                "pendiente", "preparando");
+        Date desde = Date.valueOf(HOY.minusDays(1));
+        Date hasta = Date.valueOf(HOY);
+        assertUsaIndice("idx_pedidos_fecha_estado", () -> transactionTemplate.executeWithoutResult(estado -> {
+            try (Stream<?> filas = pedidoRepository.streamPorFecha(HOY.minusDays(1), HOY)) {
+                filas.forEach(fila -> { });
+            }
+        }), desde, hasta);
+    }
+
+    @Test
+    void reservas() {
+        assertUsaIndice("idx_reservas_email_fecha", () -> reservaRepository.findByEmail("cliente7@test.pe"),
+                "cliente7@test.pe");
+        assertUsaIndice("idx_reservas_email_fecha",
+                () -> reservaRepository.findByEmailOrderByFechaDesc("cliente7@test.pe"),
+                "cliente7@test.pe");
+        assertUsaIndice("idx_reservas_fecha_hora", () -> reservaRepository.findByFecha(HOY),
+                Date.valueOf(HOY));
+        assertUsaIndice("idx_reservas_estado", () -> reservaRepository.findByEstado("pendiente"),
+                "pendiente");
+    }
+
+    @Test
+    void productosYUsuarios() {
+        assertUsaIndice("idx_productos_categoria", () -> productoRepository.findByCategoria("categoria3"),
+                "categoria3");
+        assertUsaIndice("idx_productos_disponible", () -> productoRepository.findByDisponible(false),
+                false);
+        assertUsaIndice("uk_usuarios_email", () -> usuarioRepository.findByEmail("usuario7@test.pe"),
+                "usuario7@test.pe");
+    }
+
+    /**
+     * Ejecuta el finder, toma el SELECT que generó Hibernate y verifica que
+     * su EXPLAIN use el índice. Los parámetros se pasan en el orden de los '?'.
+     */
+    private void assertUsaIndice(String indice, Runnable finder, Object... parametros) {
+        SqlCapturado.limpiar();
+        finder.run();
+        String sql = SqlCapturado.ultimoSelect();
+        List<String> claves = jdbcTemplate.query("EXPLAIN " + sql,
+                (rs, fila) -> rs.getString("key"), parametros);
+        assertTrue(claves.stream().filter(Objects::nonNull).anyMatch(indice::equalsIgnoreCase),
+                "Se esperaba " + indice + " en el plan de\n" + sql + "\nclaves usadas: " + claves);
+    }
+}
@@ -0,0 +1,186 @@
+package com.sanisidro.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ImagenProxyService contra un servidor HTTP local que hace de origen de las
+ * imágenes: desalojo LRU en disco, revalidación con 304 y detección del tipo.
+ */
+class ImagenProxyServiceTest {
+
+    private static final int TAMANO_IMAGEN = 400 * 1024;
+    private static final String ETAG_ORIGEN = "\"v1\"";
+
+    @TempDir
+    Path directorio;
+
+    private final Map<String, AtomicInteger> llamadas = new ConcurrentHashMap<>();
+    private final Map<String, String> ifNoneMatchRecibido = new ConcurrentHashMap<>();
+
+    private HttpServer origen;
+    private ExecutorService hilosOrigen;
+    private ImagenProxyService imagenProxyService;
+
+    @BeforeEach
+    void iniciar() throws Exception {
+        hilosOrigen = Executors.newCachedThreadPool();
+        origen = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        origen.setExecutor(hilosOrigen);
+        // /png/{nombre}: PNG declarado como text/html, para comprobar que el tipo se detecta por contenido
+        origen.createContext("/png/", intercambio -> responder(intercambio, 200, "text/html", png(TAMANO_IMAGEN)));
+        origen.createContext("/html", intercambio -> responder(intercambio, 200, "image/png",
+                "<html><body>no soy una imagen</body></html>".getBytes(StandardCharsets.UTF_8)));
+        origen.createContext("/etag", intercambio -> {
+            String ifNoneMatch = intercambio.getRequestHeaders().getFirst("If-None-Match");
+            if (ifNoneMatch != null) {
+                ifNoneMatchRecibido.put(intercambio.getRequestURI().getPath(), ifNoneMatch);
+            }
+            intercambio.getResponseHeaders().add("ETag", ETAG_ORIGEN);
+            if (ETAG_ORIGEN.equals(ifNoneMatch)) {
+                contar(intercambio);
+                intercambio.sendResponseHeaders(304, -1);
+                intercambio.close();
+                return;
+            }
+            responder(intercambio, 200, "image/png", png(1024));
+        });
+        origen.start();
+
+        imagenProxyService = new ImagenProxyService();
+        ReflectionTestUtils.setField(imagenProxyService, "directorioCache", directorio.toString());
+        ReflectionTestUtils.setField(imagenProxyService, "cacheMaxMb", 1L);
+        ReflectionTestUtils.setField(imagenProxyService, "maxBytesImagen", 1024L * 1024);
+        ReflectionTestUtils.setField(imagenProxyService, "revalidarMinutos", 60L);
+        ReflectionTestUtils.setField(imagenProxyService, "timeoutConexionMs", 1000L);
+        ReflectionTestUtils.setField(imagenProxyService, "timeoutLecturaMs", 1000L);
+        ReflectionTestUtils.setField(imagenProxyService, "meterRegistry", new SimpleMeterRegistry());
+        imagenProxyService.inicializar();
+    }
+
+    @AfterEach
+    void detener() {
+        imagenProxyService.cerrar();
+        origen.stop(0);
+        hilosOrigen.shutdownNow();
+    }
+
+    @Test
+    void desalojaLaMenosUsadaAlPasarElMaximo() throws Exception {
+        leer("/png/a");
+        leer("/png/b");
+        // a pasa a ser la más reciente: al llegar c se desaloja b
+        leer("/png/a");
+        leer("/png/c");
+
+        assertEquals(2, archivosImagen());
+        leer("/png/a");
+        leer("/png/c");
+        assertEquals(1, llamadas("/png/a"));
+        assertEquals(1, llamadas("/png/c"));
+
+        leer("/png/b");
+        assertEquals(2, llamadas("/png/b"));
+    }
+
+    @Test
+    void entradaVencidaSeRevalidaCon304() throws Exception {
+        ReflectionTestUtils.setField(imagenProxyService, "revalidarMinutos", 0L);
+
+        ImagenProxyService.Entrada primera = obtener("/etag");
+        ImagenProxyService.Entrada revalidada = obtener("/etag");
+
+        assertEquals(ETAG_ORIGEN, ifNoneMatchRecibido.get("/etag"));
+        assertEquals(2, llamadas("/etag"));
+        // El 304 conserva el archivo y el ETag propio; solo se renueva validadoEn
+        assertEquals(primera.etag(), revalidada.etag());
+        assertEquals(primera.descargadoEn(), revalidada.descargadoEn());
+        assertTrue(revalidada.validadoEn() >= primera.validadoEn());
+        assertEquals(1, archivosImagen());
+    }
+
+    @Test
+    void tipoSeDetectaPorContenido() throws Exception {
+        ImagenProxyService.Entrada entrada = obtener("/png/tipo");
+        assertEquals("image/png", entrada.contentType());
+
+        assertThrows(IllegalArgumentException.class, () -> obtener("/html"));
+        assertEquals(1, archivosImagen());
+    }
+
+    private ImagenProxyService.Entrada obtener(String ruta) throws Exception {
+        ImagenProxyService.ImagenCacheada imagen = imagenProxyService.obtener(url(ruta));
+        assertNotNull(imagen);
+        imagen.contenido().close();
+        return imagen.entrada();
+    }
+
+    private void leer(String ruta) throws Exception {
+        ImagenProxyService.ImagenCacheada imagen = imagenProxyService.obtener(url(ruta));
+        assertNotNull(imagen);
+        try (InputStream contenido = imagen.contenido()) {
+            assertArrayEquals(png(TAMANO_IMAGEN), contenido.readAllBytes());
+        }
+    }
+
+    private String url(String ruta) {
+        return "http://localhost:" + origen.getAddress().getPort() + ruta;
+    }
+
+    private long archivosImagen() throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.filter(p -> p.getFileName().toString().endsWith(".img")).count();
+        }
+    }
+
+    private int llamadas(String ruta) {
+        AtomicInteger contador = llamadas.get(ruta);
+        return contador == null ? 0 : contador.get();
+    }
+
+    private void contar(HttpExchange intercambio) {
+        llamadas.computeIfAbsent(intercambio.getRequestURI().getPath(), r -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private void responder(HttpExchange intercambio, int estado, String contentType, byte[] cuerpo) throws IOException {
+        contar(intercambio);
+        intercambio.getResponseHeaders().add("Content-Type", contentType);
+        intercambio.sendResponseHeaders(estado, cuerpo.length);
+        intercambio.getResponseBody().write(cuerpo);
+        intercambio.close();
+    }
+
+    private static byte[] png(int tamano) {
+        byte[] png = new byte[tamano];
+        Arrays.fill(png, (byte) 7);
+        byte[] firma = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+        System.arraycopy(firma, 0, png, 0, firma.length);
+        return png;
+    }
+}
@@ -0,0 +1,35 @@
+package com.sanisidro.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sanisidro.model.ItemPedido;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ItemPedidoDecoderTest {
+
+    private final ItemPedidoDecoder decoder = new ItemPedidoDecoder(new ObjectMapper());
+
+    @Test
+    void objetosYArreglosEnCamposSimplesSeSaltan() throws Exception {
+        List<ItemPedido> items = decoder.decodificar("""
+                [{"nombre": {"x": 1}, "cantidad": [1, 2], "precio": 3},
+                 {"id": 7, "nombre": "Ceviche", "cantidad": 2, "precio": 25.5}]
+                """);
+
+        assertEquals(2, items.size());
+        ItemPedido invalido = items.get(0);
+        assertNull(invalido.getNombre());
+        assertEquals(0, invalido.getCantidad());
+        assertEquals(3.0, invalido.getPrecio());
+
+        ItemPedido valido = items.get(1);
+        assertEquals(7L, valido.getProductoId());
+        assertEquals("Ceviche", valido.getNombre());
+        assertEquals(2, valido.getCantidad());
+        assertEquals(25.5, valido.getPrecio());
+    }
+}
@@ -0,0 +1,184 @@
+package com.sanisidro.service;
+
+import com.sanisidro.dto.ReniecResponse;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ReniecService contra un servidor HTTP local que simula la API: cache,
+ * consultas compartidas, timeout y circuit breaker.
+ */
+class ReniecServiceTest {
+
+    private static final int TIMEOUT_LECTURA_MS = 500;
+    private static final int FALLOS_PARA_ABRIR = 2;
+    private static final long SEGUNDOS_ABIERTO = 1;
+
+    private final AtomicInteger estado = new AtomicInteger(200);
+    private final AtomicLong demoraMs = new AtomicLong();
+    private final AtomicInteger llamadas = new AtomicInteger();
+
+    private HttpServer servidor;
+    private ExecutorService hilosServidor;
+    private ReniecService reniecService;
+
+    @BeforeEach
+    void iniciar() throws Exception {
+        hilosServidor = Executors.newCachedThreadPool();
+        servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        servidor.setExecutor(hilosServidor);
+        servidor.createContext("/dni", intercambio -> {
+            llamadas.incrementAndGet();
+            try {
+                Thread.sleep(demoraMs.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String dni = intercambio.getRequestURI().getQuery().substring("numero=".length());
+            byte[] cuerpo = ("{\"first_name\":\"JUAN\",\"first_last_name\":\"PEREZ\"," +
+                    "\"second_last_name\":\"QUISPE\",\"document_number\":\"" + dni + "\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().add("Content-Type", "application/json");
+            intercambio.sendResponseHeaders(estado.get(), cuerpo.length);
+            intercambio.getResponseBody().write(cuerpo);
+            intercambio.close();
+        });
+        servidor.start();
+
+        reniecService = new ReniecService();
+        ReflectionTestUtils.setField(reniecService, "apiUrl",
+                "http://localhost:" + servidor.getAddress().getPort() + "/dni");
+        ReflectionTestUtils.setField(reniecService, "apiToken", "token-de-pruebas");
+        ReflectionTestUtils.setField(reniecService, "timeoutConexionMs", 1000);
+        ReflectionTestUtils.setField(reniecService, "timeoutLecturaMs", TIMEOUT_LECTURA_MS);
+        ReflectionTestUtils.setField(reniecService, "tamanoMaximoCache", 100L);
+        ReflectionTestUtils.setField(reniecService, "ttlHoras", 1L);
+        ReflectionTestUtils.setField(reniecService, "ttlNoEncontradoMinutos", 1L);
+        ReflectionTestUtils.setField(reniecService, "maxConcurrentes", 10);
+        ReflectionTestUtils.setField(reniecService, "fallosParaAbrir", FALLOS_PARA_ABRIR);
+        ReflectionTestUtils.setField(reniecService, "segundosAbierto", SEGUNDOS_ABIERTO);
+        ReflectionTestUtils.setField(reniecService, "meterRegistry", new SimpleMeterRegistry());
+        reniecService.inicializar();
+    }
+
+    @AfterEach
+    void detener() {
+        servidor.stop(0);
+        hilosServidor.shutdownNow();
+    }
+
+    @Test
+    void dniEncontradoSeSirveDesdeCache() {
+        ReniecResponse primera = reniecService.consultarPorDni("12345678");
+        ReniecResponse segunda = reniecService.consultarPorDni("12345678");
+
+        assertEquals("12345678", primera.getDocumentNumber());
+        assertEquals(primera, segunda);
+        assertEquals(1, llamadas.get());
+    }
+
+    @Test
+    void dniNoEncontradoSeSirveDesdeCache() {
+        estado.set(404);
+
+        assertNull(reniecService.consultarPorDni("12345678"));
+        assertNull(reniecService.consultarPorDni("12345678"));
+        assertEquals(1, llamadas.get());
+    }
+
+    @Test
+    void consultasSimultaneasDelMismoDniHacenUnaLlamada() throws Exception {
+        demoraMs.set(200);
+        int hilos = 8;
+        CountDownLatch partida = new CountDownLatch(1);
+        ExecutorService clientes = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<ReniecResponse>> respuestas = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                respuestas.add(clientes.submit(() -> {
+                    partida.await();
+                    return reniecService.consultarPorDni("12345678");
+                }));
+            }
+            partida.countDown();
+            for (Future<ReniecResponse> respuesta : respuestas) {
+                assertEquals("12345678", respuesta.get().getDocumentNumber());
+            }
+        } finally {
+            clientes.shutdownNow();
+        }
+        assertEquals(1, llamadas.get());
+    }
+
+    @Test
+    void respuestaLentaCortaPorTimeout() {
+        demoraMs.set(TIMEOUT_LECTURA_MS * 4L);
+
+        long inicio = System.nanoTime();
+        assertThrows(ResourceAccessException.class, () -> reniecService.consultarPorDni("12345678"));
+        long transcurridoMs = (System.nanoTime() - inicio) / 1_000_000;
+        assertTrue(transcurridoMs < TIMEOUT_LECTURA_MS * 3L, "tardó " + transcurridoMs + " ms");
+    }
+
+    @Test
+    void circuitoSeAbrePruebaYSeCierra() throws Exception {
+        estado.set(500);
+        for (int i = 0; i < FALLOS_PARA_ABRIR; i++) {
+            String dni = "1000000" + i;
+            assertThrows(HttpServerErrorException.class, () -> reniecService.consultarPorDni(dni));
+        }
+        // Abierto: rechaza sin llamar a la API
+        assertThrows(IllegalStateException.class, () -> reniecService.consultarPorDni("20000000"));
+        assertEquals(FALLOS_PARA_ABRIR, llamadas.get());
+
+        // Semiabierto: la prueba falla y el circuito vuelve a abrirse
+        Thread.sleep(SEGUNDOS_ABIERTO * 1000 + 100);
+        assertThrows(HttpServerErrorException.class, () -> reniecService.consultarPorDni("20000001"));
+        assertThrows(IllegalStateException.class, () -> reniecService.consultarPorDni("20000002"));
+        assertEquals(FALLOS_PARA_ABRIR + 1, llamadas.get());
+
+        // Semiabierto: la prueba responde y el circuito se cierra
+        Thread.sleep(SEGUNDOS_ABIERTO * 1000 + 100);
+        estado.set(200);
+        assertNotNull(reniecService.consultarPorDni("20000003"));
+        assertNotNull(reniecService.consultarPorDni("20000004"));
+        assertEquals(FALLOS_PARA_ABRIR + 3, llamadas.get());
+    }
+
+    @Test
+    void errorDelClienteNoAbreElCircuito() {
+        for (int estadoCliente : new int[]{400, 401, 403, 429}) {
+            estado.set(estadoCliente);
+            for (int i = 0; i < FALLOS_PARA_ABRIR; i++) {
+                String dni = estadoCliente + "0000" + i;
+                assertThrows(HttpClientErrorException.class, () -> reniecService.consultarPorDni(dni));
+            }
+        }
+        estado.set(200);
+        assertNotNull(reniecService.consultarPorDni("30000000"));
+    }
+}
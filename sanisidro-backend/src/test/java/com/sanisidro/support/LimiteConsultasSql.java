@@ -0,0 +1,36 @@
+package com.sanisidro.support;
+
+import com.sanisidro.config.ConsultasSqlFilter;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Aserciones sobre la cantidad de consultas SQL de una petición, leída del
+ * header que agrega ConsultasSqlFilter.
+ *
+ * <pre>
+ * mockMvc.perform(get("/api/usuarios")).andExpect(LimiteConsultasSql.maximo(2));
+ * </pre>
+ */
+public final class LimiteConsultasSql {
+
+    private LimiteConsultasSql() {
+    }
+
+    public static ResultMatcher maximo(int maximo) {
+        return resultado -> {
+            int consultas = consultas(resultado);
+            assertTrue(consultas <= maximo, resultado.getRequest().getRequestURI()
+                    + " hizo " + consultas + " consultas SQL (máximo " + maximo + ")");
+        };
+    }
+
+    public static int consultas(MvcResult resultado) {
+        String header = resultado.getResponse().getHeader(ConsultasSqlFilter.HEADER_CONSULTAS);
+        assertNotNull(header, "La respuesta no tiene el header " + ConsultasSqlFilter.HEADER_CONSULTAS);
+        return Integer.parseInt(header);
+    }
+}
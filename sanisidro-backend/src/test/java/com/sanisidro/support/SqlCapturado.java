@@ -0,0 +1,38 @@
+package com.sanisidro.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Guarda el SQL que genera Hibernate en el hilo actual, para poder pedir su
+ * EXPLAIN. Se activa con hibernate.session_factory.statement_inspector.
+ */
+public class SqlCapturado implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> CONSULTAS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        CONSULTAS.get().add(sql);
+        return sql;
+    }
+
+    public static void limpiar() {
+        CONSULTAS.get().clear();
+    }
+
+    /**
+     * @return el último SELECT ejecutado en este hilo
+     */
+    public static String ultimoSelect() {
+        List<String> consultas = CONSULTAS.get();
+        for (int i = consultas.size() - 1; i >= 0; i--) {
+            if (consultas.get(i).trim().regionMatches(true, 0, "select", 0, 6)) {
+                return consultas.get(i);
+            }
+        }
+        throw new IllegalStateException("No se ejecutó ningún SELECT");
+    }
+}
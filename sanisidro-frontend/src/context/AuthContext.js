@@ -51,11 +51,9 @@ export const AuthProvider = ({ children }) => {
         esAdmin: false
       });
       
-      const newUser = response.data;
-      setUser(newUser);
-      setIsAuthenticated(true);
-      localStorage.setItem('user', JSON.stringify(newUser));
-      return { success: true };
+      // El registro no devuelve token: se inicia sesión para obtenerlo
+      const resultado = await login(response.data.email, userData.password || 'password123');
+      return { success: resultado.success, error: resultado.error };
     } catch (error) {
       console.error('Error en registro:', error);
       return { success: false, error: error.response?.data?.error || 'Error al registrar usuario' };
@@ -63,6 +61,10 @@ export const AuthProvider = ({ children }) => {
   };
 
   const logout = () => {
+    // Revoca el token en el backend; la sesión local se cierra igual si falla
+    if (user?.token) {
+      usuariosAPI.logout(user.token).catch(() => {});
+    }
     setUser(null);
     setIsAuthenticated(false);
     localStorage.removeItem('user');
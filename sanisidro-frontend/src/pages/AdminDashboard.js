@@ -1,6 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import { useNavigate } from 'react-router-dom';
-import { pedidosAPI, usuariosAPI, productosAPI, reservasAPI } from '../services/api';
+import { adminAPI, crearStreamPedidos } from '../services/api';
 import './AdminDashboard.css';
 
 const AdminDashboard = () => {
@@ -29,41 +29,33 @@ const AdminDashboard = () => {
 
     calculateStats();
 
+    // Los pedidos llegan por SSE; el intervalo solo cubre reservas y usuarios
+    const stream = crearStreamPedidos();
+    ['creado', 'actualizado', 'eliminado', 'reset'].forEach(tipo =>
+      stream.addEventListener(tipo, () => calculateStats())
+    );
+
     const interval = setInterval(() => {
       calculateStats();
-    }, 5000);
+    }, 60000);
 
-    return () => clearInterval(interval);
+    return () => {
+      clearInterval(interval);
+      stream.close();
+    };
   }, []);
 
   const calculateStats = async () => {
     try {
-      const pedidosResponse = await pedidosAPI.obtenerTodos();
-      const orders = pedidosResponse.data || [];
-
-      const productosResponse = await productosAPI.obtenerTodos();
-      const products = productosResponse.data || [];
-
-      const usuariosResponse = await usuariosAPI.obtenerTodos();
-      const users = usuariosResponse.data || [];
-
-      const reservasResponse = await reservasAPI.obtenerTodas();
-      const reservations = reservasResponse.data || [];
-
-      const today = new Date().toISOString().split('T')[0];
-      const reservasHoy = reservations.filter(r => {
-        const reservaFecha = Array.isArray(r.fecha)
-          ? `${r.fecha[0]}-${String(r.fecha[1]).padStart(2, '0')}-${String(r.fecha[2]).padStart(2, '0')}`
-          : r.fecha;
-        return reservaFecha === today;
-      }).length;
+      const response = await adminAPI.obtenerEstadisticas();
+      const data = response.data || {};
 
       setStats({
-        totalPedidos: orders.length,
-        usuariosRegistrados: users.length,
-        productos: products.length,
-        reservasHoy: reservasHoy,
-        reservasTotales: reservations.length
+        totalPedidos: data.totalPedidos || 0,
+        usuariosRegistrados: data.usuariosRegistrados || 0,
+        productos: data.productos || 0,
+        reservasHoy: data.reservasHoy || 0,
+        reservasTotales: data.reservasTotales || 0
       });
     } catch (error) {
       console.error('Error cargando estadisticas:', error);
@@ -1,6 +1,6 @@
-import React, { useState } from 'react';
+import React, { useState, useEffect } from 'react';
 import { useCart } from '../context/CartContext';
-import { pedidosAPI, usuariosAPI, promocionesAPI } from '../services/api';
+import { pedidosAPI, usuariosAPI } from '../services/api';
 import Header from '../components/Header';
 import Footer from '../components/Footer';
 import ExtrasModal from '../components/ExtrasModal';
@@ -31,62 +31,39 @@ const CartPage = () => {
   // Calcular totales con descuento
   const subtotal = getCartTotal();
 
-  const calculateDiscount = () => {
-    // 1. Si no hay promo aplicada, descuento es 0
-    if (!appliedPromo) return 0;
-
-    // 2. Normalizar el porcentaje de descuento (asegurar que sea número)
-    const descuentoPorcentaje = Number(appliedPromo.descuento) || 0;
-
-    // Debug para ver qué está llegando
-    console.log('--- CALCULANDO DESCUENTO ---');
-    console.log('Promo:', appliedPromo.codigo);
-    console.log('Porcentaje:', descuentoPorcentaje);
-    console.log('Tipo:', appliedPromo.tipoPromocion);
-
-    // 3. CASO: Promoción General (Aplica a todo el subtotal)
-    if (appliedPromo.tipoPromocion === 'general' || appliedPromo.tipoPromocion === 'porcentaje') {
-      const descuentoCalculado = (subtotal * descuentoPorcentaje) / 100;
-      return descuentoCalculado;
-    }
-
-    // 4. CASO: Monto Fijo (Descuento directo en dinero, ej: S/ 20.00)
-    // Agrego este caso por si tu promo es de tipo 'monto_fijo' como vi en tu SQL
-    if (appliedPromo.tipoPromocion === 'monto_fijo') {
-      return descuentoPorcentaje; // En este caso el "porcentaje" es el monto real
-    }
-
-    // 5. CASO: Producto Específico
-    if (appliedPromo.tipoPromocion === 'producto' && appliedPromo.productosAplicables) {
-      // Normalizar la lista de IDs permitidos a números
-      const idsValidos = Array.isArray(appliedPromo.productosAplicables)
-        ? appliedPromo.productosAplicables
-        : String(appliedPromo.productosAplicables).split(',').map(Number);
-
-      // Filtrar items del carrito que coincidan
-      const applicableItems = cartItems.filter(item =>
-        idsValidos.includes(Number(item.id))
-      );
-
-      // Calcular subtotal solo de esos items
-      const applicableSubtotal = applicableItems.reduce((sum, item) => {
-        const precio = Number(item.precio) || 0;
-        // Unificar propiedad de cantidad (quantity vs cantidad)
-        const cantidad = Number(item.quantity || item.cantidad) || 0;
-        return sum + (precio * cantidad);
-      }, 0);
-
-      const descuentoCalculado = (applicableSubtotal * descuentoPorcentaje) / 100;
-      return descuentoCalculado;
-    }
-
-    return 0;
-  };
-
-  const discount = calculateDiscount() || 0;
-  const total = (subtotal - discount) || subtotal;
+  // Items en el formato que espera el backend (precio y nombre los pone el catálogo)
+  const itemsCarrito = () => cartItems.map(item => ({
+    productoId: item.id,
+    nombre: item.nombre,
+    cantidad: item.cantidad,
+    precio: item.precio
+  }));
+
+  // El descuento lo calcula el backend (/pedidos/cotizar) con las mismas reglas que al crear el pedido
+  const discount = appliedPromo ? appliedPromo.descuento : 0;
+  const total = appliedPromo ? appliedPromo.total : subtotal;
+
+  // Si cambia el carrito con una promoción aplicada, se vuelve a cotizar
+  useEffect(() => {
+    if (!appliedPromo || cartItems.length === 0) return;
+    let cancelado = false;
+    pedidosAPI.cotizar({ codigoPromo: appliedPromo.codigo, items: itemsCarrito() })
+      .then(({ data }) => {
+        if (cancelado) return;
+        if (data.valida) {
+          setAppliedPromo(data);
+        } else {
+          setAppliedPromo(null);
+          setPromoError(data.mensaje || 'La promoción ya no aplica a tu carrito');
+        }
+      })
+      .catch(() => {
+        if (!cancelado) setAppliedPromo(null);
+      });
+    return () => { cancelado = true; };
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [cartItems]);
 
-  // Aplicar código promocional
   // Aplicar código promocional
   const handleApplyPromo = async () => {
     setPromoError('');
@@ -97,91 +74,26 @@ const CartPage = () => {
     }
 
     try {
-      // CORRECCIÓN: Usamos el nombre exacto que está en tu api.js
-      const response = await promocionesAPI.obtenerPorCodigo(promoCode.toUpperCase());
-
-      // Axios devuelve la data dentro de .data
-      const promo = response.data;
-
-      // Validar si la respuesta vino vacía (algunos backends devuelven 200 OK pero body vacío si no encuentran)
-      if (!promo || !promo.codigo) {
-        setPromoError('Código no encontrado');
-        return;
-      }
-
-      const today = new Date().toISOString().split('T')[0];
-
-      // Formatear fechas si vienen como array
-      const formatearFecha = (fecha) => {
-        if (!fecha) return null;
-        if (Array.isArray(fecha)) {
-          return `${fecha[0]}-${String(fecha[1]).padStart(2, '0')}-${String(fecha[2]).padStart(2, '0')}`;
-        }
-        return fecha;
-      };
-
-      const fechaInicio = formatearFecha(promo.fechaInicio);
-      const fechaFin = formatearFecha(promo.fechaFin);
-
-      if (!promo.activa) {
-        setPromoError('Esta promoción no está activa');
-        return;
-      }
-
-      if (fechaInicio > today) {
-        setPromoError('Esta promoción aún no ha comenzado');
-        return;
-      }
-
-      if (fechaFin < today) {
-        setPromoError('Esta promoción ha expirado');
-        return;
-      }
-
-      // Convertir productosAplicables de string a array
-      if (promo.productosAplicables && typeof promo.productosAplicables === 'string') {
-        promo.productosAplicables = promo.productosAplicables.split(',').map(id => parseInt(id));
-      }
-
-      // Validar monto mínimo
-      if (promo.montoMinimo && subtotal < promo.montoMinimo) {
-        setPromoError(`Monto mínimo requerido: S/ ${promo.montoMinimo}`);
-        return;
-      }
+      // Una sola llamada: el backend valida el código y calcula subtotal, descuento y total
+      const { data } = await pedidosAPI.cotizar({
+        codigoPromo: promoCode.toUpperCase(),
+        items: itemsCarrito()
+      });
 
-      // Validar cantidad mínima
-      const totalItems = cartItems.reduce((sum, item) => sum + (item.quantity || item.cantidad || 0), 0);
-      if (promo.cantidadMinima && totalItems < promo.cantidadMinima) {
-        setPromoError(`Cantidad mínima requerida: ${promo.cantidadMinima} productos`);
+      if (!data.valida) {
+        setPromoError(data.mensaje || 'Código inválido');
         return;
       }
 
-      // Validar productos específicos
-      if (promo.tipoPromocion === 'producto' && promo.productosAplicables) {
-        const hasApplicableProducts = cartItems.some(item =>
-          promo.productosAplicables.includes(item.id)
-        );
-
-        if (!hasApplicableProducts) {
-          setPromoError('Esta promoción no aplica a los productos en tu carrito');
-          return;
-        }
-      }
-
-      setAppliedPromo(promo);
+      setAppliedPromo(data);
       setPromoCode('');
       setToast({
-        message: `✓ Código ${promo.codigo} aplicado - ${promo.descuento}% de descuento`,
+        message: `✓ Código ${data.codigo} aplicado - S/ ${data.descuento.toFixed(2)} de descuento`,
         type: 'success'
       });
     } catch (error) {
       console.error('Error aplicando promoción:', error);
-      // Manejo de error si el backend devuelve 404 o 500
-      if (error.response && error.response.status === 404) {
-        setPromoError('Código no encontrado');
-      } else {
-        setPromoError('Código inválido o error de conexión');
-      }
+      setPromoError('Código inválido o error de conexión');
     }
   };
 
@@ -244,67 +156,42 @@ const CartPage = () => {
       return;
     }
 
-    const now = new Date();
-    // Generar ID de factura único
-    const invoiceNumber = `${now.getFullYear()}${String(now.getMonth() + 1).padStart(2, '0')}${String(now.getDate()).padStart(2, '0')}-${String(now.getHours()).padStart(2, '0')}${String(now.getMinutes()).padStart(2, '0')}${String(now.getSeconds()).padStart(2, '0')}`;
-
     const userData = localStorage.getItem('user');
     const user = userData ? JSON.parse(userData) : null;
 
     const nombreCliente = paymentData.holderName || (user ? user.nombre : 'Cliente Invitado');
     const telefonoCliente = paymentData.phone || (user ? user.telefono : null);
 
-    const fechaPeru = new Intl.DateTimeFormat('es-PE', {
-      timeZone: 'America/Lima',
-      year: 'numeric',
-      month: '2-digit',
-      day: '2-digit'
-    }).format(now).split('/').reverse().join('-');
-
     try {
       const pedidoData = {
         cliente: nombreCliente,
         nombreCliente: nombreCliente,
         email: user ? user.email : null,
         telefono: telefonoCliente,
-        numeroFactura: invoiceNumber,
-
-        // Usar la fecha corregida
-        fecha: fechaPeru,
-
-        hora: now.toLocaleTimeString('es-PE', { hour12: false, timeZone: 'America/Lima' }),
         subtotal: subtotal,
         descuento: discount,
         codigoPromo: appliedPromo ? appliedPromo.codigo : null,
         total: total,
-        estado: 'pendiente',
         metodoPago: paymentData.method,
         detalles: JSON.stringify(cartItems),
-        items: cartItems.map(item => ({
-          nombre: item.nombre,
-          cantidad: item.cantidad,
-          precio: item.precio
-        }))
+        items: itemsCarrito()
       };
 
-      await pedidosAPI.crear(pedidoData);
-
-      // ... (resto del código igual: actualizar usuario, modal factura, etc) ...
+      // Número de factura, fecha, hora y totales los asigna el backend
+      const { data: pedido } = await pedidosAPI.crear(pedidoData);
 
-      // Datos para mostrar en la factura (también corregimos la fecha visual)
       const order = {
-        invoiceNumber,
-        date: fechaPeru, // Usar fecha corregida
-        time: now.toLocaleTimeString('es-PE', { hour: '2-digit', minute: '2-digit', timeZone: 'America/Lima' }),
-        // ... resto de campos igual
+        invoiceNumber: pedido.numeroFactura,
+        date: pedido.fecha,
+        time: pedido.hora ? pedido.hora.substring(0, 5) : '',
         paymentMethod: paymentData.method,
         customerName: nombreCliente,
         customerPhone: telefonoCliente,
         items: cartItems,
-        subtotal: subtotal,
-        descuento: discount,
-        codigoPromo: appliedPromo ? appliedPromo.codigo : null,
-        total: total
+        subtotal: pedido.subtotal,
+        descuento: pedido.descuento,
+        codigoPromo: pedido.codigoPromo,
+        total: pedido.total
       };
 
       setOrderData(order);
@@ -483,7 +370,7 @@ const CartPage = () => {
                   <div className="applied-promo">
                     <div className="promo-info">
                       <i className="fas fa-tag"></i>
-                      <span>{appliedPromo.codigo} - {appliedPromo.descuento}% OFF</span>
+                      <span>{appliedPromo.codigo} aplicado</span>
                     </div>
                     <button onClick={handleRemovePromo} className="remove-promo-btn">
                       <i className="fas fa-times"></i>
@@ -495,7 +382,7 @@ const CartPage = () => {
 
               {appliedPromo && (
                 <div className="summary-row discount-row">
-                  <span>Descuento ({appliedPromo.descuento}%)</span>
+                  <span>Descuento ({appliedPromo.codigo})</span>
                   <span className="discount-amount">- S/ {discount.toFixed(2)}</span>
                 </div>
               )}
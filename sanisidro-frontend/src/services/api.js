@@ -13,9 +13,35 @@ const api = axios.create({
   },
 });
 
+// Token de sesión devuelto por el login (se guarda junto al usuario en localStorage)
+api.interceptors.request.use((config) => {
+  const storedUser = localStorage.getItem('user');
+  const token = storedUser ? JSON.parse(storedUser).token : null;
+  if (token) {
+    config.headers.Authorization = `Bearer ${token}`;
+  }
+  return config;
+});
+
+// Token vencido o revocado: se descarta la sesión guardada y se vuelve al login
+api.interceptors.response.use(
+  (response) => response,
+  (error) => {
+    const conToken = Boolean(error.config?.headers?.Authorization);
+    if (error.response?.status === 401 && conToken) {
+      localStorage.removeItem('user');
+      if (window.location.pathname !== '/login') {
+        window.location.assign('/login');
+      }
+    }
+    return Promise.reject(error);
+  }
+);
+
 // ============ PRODUCTOS ============
 export const productosAPI = {
   obtenerTodos: () => api.get('/productos'),
+  obtenerPagina: (after, limit) => api.get('/productos/pagina', { params: { after, limit } }),
   obtenerPorId: (id) => api.get(`/productos/${id}`),
   obtenerPorCategoria: (categoria) => api.get(`/productos/categoria/${categoria}`),
   crear: (producto) => api.post('/productos', producto),
@@ -26,9 +52,11 @@ export const productosAPI = {
 // ============ USUARIOS ============
 export const usuariosAPI = {
   obtenerTodos: () => api.get('/usuarios'),
+  obtenerPagina: (after, limit) => api.get('/usuarios/pagina', { params: { after, limit } }),
   obtenerPorId: (id) => api.get(`/usuarios/${id}`),
   registrar: (usuario) => api.post('/usuarios/registro', usuario),
   login: (credentials) => api.post('/usuarios/login', credentials),
+  logout: (token) => api.post('/usuarios/logout', null, { headers: { Authorization: `Bearer ${token}` } }),
   actualizar: (id, usuario) => api.put(`/usuarios/${id}`, usuario),
   eliminar: (id) => api.delete(`/usuarios/${id}`),
 };
@@ -36,18 +64,25 @@ export const usuariosAPI = {
 // ============ PEDIDOS ============
 export const pedidosAPI = {
   obtenerTodos: () => api.get('/pedidos'),
+  obtenerPagina: (after, limit) => api.get('/pedidos/pagina', { params: { after, limit } }),
   obtenerPorId: (id) => api.get(`/pedidos/${id}`),
   obtenerPorEmail: (email) => api.get(`/pedidos/usuario/${email}`),
+  obtenerColaCocina: (estados = ['pendiente', 'preparando']) => api.get('/pedidos/cocina', { params: { estados: estados.join(',') } }),
+  cotizar: (carrito) => api.post('/pedidos/cotizar', carrito),
   crear: (pedido) => api.post('/pedidos', pedido),
   actualizarEstado: (id, estado) => api.put(`/pedidos/${id}/estado`, { estado }),
   eliminar: (id) => api.delete(`/pedidos/${id}`),
 };
 
+// Eventos en tiempo real de pedidos (Server-Sent Events)
+export const crearStreamPedidos = () => new EventSource(`${API_URL}/pedidos/stream`);
+
 // ============ PROMOCIONES ============
 export const promocionesAPI = {
   obtenerTodas: () => api.get('/promociones'),
   obtenerPorId: (id) => api.get(`/promociones/${id}`),
   obtenerPorCodigo: (codigo) => api.get(`/promociones/codigo/${codigo}`),
+  evaluar: (carrito) => api.post('/promociones/evaluar', carrito),
   crear: (promocion) => api.post('/promociones', promocion),
   actualizar: (id, promocion) => api.put(`/promociones/${id}`, promocion),
   eliminar: (id) => api.delete(`/promociones/${id}`),
@@ -56,15 +91,25 @@ export const promocionesAPI = {
 // ============ RESERVAS ============
 export const reservasAPI = {
   obtenerTodas: () => api.get('/reservas'),
+  obtenerPagina: (after, limit) => api.get('/reservas/pagina', { params: { after, limit } }),
   obtenerPorId: (id) => api.get(`/reservas/${id}`),
   obtenerPorEmail: (email) => api.get(`/reservas/usuario/${email}`),
   obtenerPorFecha: (fecha) => api.get(`/reservas/fecha/${fecha}`),
   obtenerPorEstado: (estado) => api.get(`/reservas/estado/${estado}`),
+  consultarDisponibilidad: (fecha) => api.get('/reservas/disponibilidad', { params: { fecha } }),
   crear: (reserva) => api.post('/reservas', reserva),
   actualizar: (id, reserva) => api.put(`/reservas/${id}`, reserva),
   eliminar: (id) => api.delete(`/reservas/${id}`),
 };
 
+// ============ ADMIN ============
+export const adminAPI = {
+  obtenerEstadisticas: () => api.get('/admin/stats'),
+  obtenerReporteVentas: (desde, hasta) => api.get('/admin/ventas', { params: { desde, hasta } }),
+  exportarPedidos: (desde, hasta) => api.get('/admin/export/pedidos.xlsx', { params: { desde, hasta }, responseType: 'blob' }),
+  exportarReservas: (desde, hasta) => api.get('/admin/export/reservas.xlsx', { params: { desde, hasta }, responseType: 'blob' }),
+};
+
 export const reniecAPI = {
   consultar: (dni) => api.get(`/reniec/consulta/${dni}`)
 };